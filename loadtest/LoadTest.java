@@ -0,0 +1,253 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Closed-loop HTTP load test for the reservation API.
+ *
+ * Runs with the JDK alone (no build, no dependencies):
+ *
+ *     java loadtest/LoadTest.java --clients 400 --duration 60s
+ *
+ * Every client is a virtual thread that sends requests back to back, picking the endpoint by the
+ * configured mix:
+ * - availability: GET /api/availability for a random day, time and party size
+ * - recommendation: GET /api/recommendation with the same random parameters
+ * - reserve: POST /api/reservations for a random table of the restaurant and slot; once the slots fill up most
+ *   of these are rejected as already reserved, which the API currently answers with a 5xx status
+ *
+ * Prints requests per second and latency percentiles per endpoint, the number of 5xx responses and
+ * the number of transport errors (timeouts, refused or reset connections). Run it once against the
+ * default profile and once against the "virtual" profile with the same options to compare the two
+ * modes; transport errors are the signal of a saturated server.
+ *
+ * Options (defaults in brackets):
+ * --url [http://localhost:8080], --clients [200], --duration [30s], --warmup [10s],
+ * --mix [availability=60,recommendation=30,reserve=10], --restaurant [1], --days [7],
+ * --timeout [10s]
+ */
+public class LoadTest {
+
+    private static final LocalTime FIRST_SLOT = LocalTime.of(12, 0);
+    private static final int SLOTS = 41; // 12:00 .. 22:00 in 15-minute steps
+    private static final Pattern TABLE_ID = Pattern.compile("\\{\\s*\"id\"\\s*:\\s*(\\d+)");
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        URI base = URI.create(options.getOrDefault("url", "http://localhost:8080"));
+        int clients = Integer.parseInt(options.getOrDefault("clients", "200"));
+        Duration duration = duration(options.getOrDefault("duration", "30s"));
+        Duration warmup = duration(options.getOrDefault("warmup", "10s"));
+        Duration timeout = duration(options.getOrDefault("timeout", "10s"));
+        int days = Integer.parseInt(options.getOrDefault("days", "7"));
+        long restaurant = Long.parseLong(options.getOrDefault("restaurant", "1"));
+        Map<String, Integer> mix = mix(options.getOrDefault("mix", "availability=60,recommendation=30,reserve=10"));
+
+        Map<String, Stats> stats = new LinkedHashMap<>();
+        mix.keySet().forEach(op -> stats.put(op, new Stats()));
+        int totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+
+        HttpClient http = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(timeout)
+                .build();
+        long[] tables = tableIds(http, base, restaurant, timeout);
+
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        System.out.printf("%s (restaurant %d, %d tables): %d clients, %ds warmup, %ds measured, mix %s%n",
+                base, restaurant, tables.length, clients, warmup.toSeconds(), duration.toSeconds(), mix);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                executor.submit(() -> {
+                    ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                    while (System.nanoTime() < end) {
+                        String op = pick(mix, totalWeight, rnd.nextInt(totalWeight));
+                        HttpRequest request = request(op, base, restaurant, tables, days, timeout, rnd);
+                        long sent = System.nanoTime();
+                        int status;
+                        try {
+                            status = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        } catch (Exception e) {
+                            status = 0;
+                        }
+                        long received = System.nanoTime();
+                        if (sent >= measureFrom && received <= end) {
+                            stats.get(op).record(received - sent, status);
+                        }
+                    }
+                    return null;
+                });
+            }
+        }
+
+        double seconds = duration.toNanos() / 1e9;
+        System.out.printf("%-15s %9s %9s %9s %9s %9s %9s %7s %7s%n",
+                "endpoint", "requests", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms", "5xx", "errors");
+        long total = 0;
+        for (Map.Entry<String, Stats> e : stats.entrySet()) {
+            Stats s = e.getValue();
+            long[] latencies = s.sorted();
+            total += latencies.length;
+            System.out.printf("%-15s %9d %9.1f %9.1f %9.1f %9.1f %9.1f %7d %7d%n",
+                    e.getKey(), latencies.length, latencies.length / seconds,
+                    millis(percentile(latencies, 0.50)), millis(percentile(latencies, 0.95)),
+                    millis(percentile(latencies, 0.99)), millis(percentile(latencies, 1.0)),
+                    s.serverErrors.sum(), s.transportErrors.sum());
+        }
+        System.out.printf("%-15s %9d %9.1f%n", "total", total, total / seconds);
+    }
+
+    private static HttpRequest request(String op, URI base, long restaurant, long[] tables, int days,
+                                       Duration timeout, ThreadLocalRandom rnd) {
+        LocalDate date = LocalDate.now().plusDays(rnd.nextInt(days));
+        LocalTime time = FIRST_SLOT.plusMinutes(15L * rnd.nextInt(SLOTS));
+        int partySize = 1 + rnd.nextInt(6);
+        String query = "restaurantId=" + restaurant + "&date=" + date + "&time=" + time + "&partySize=" + partySize;
+        return switch (op) {
+            case "availability" -> HttpRequest.newBuilder(base.resolve("/api/availability?" + query))
+                    .timeout(timeout).GET().build();
+            case "recommendation" -> HttpRequest.newBuilder(base.resolve("/api/recommendation?" + query))
+                    .timeout(timeout).GET().build();
+            case "reserve" -> HttpRequest.newBuilder(base.resolve("/api/reservations?restaurantId=" + restaurant))
+                    .timeout(timeout)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("""
+                            {"tableId": %d, "date": "%s", "time": "%s", "partySize": 2}"""
+                            .formatted(tables[rnd.nextInt(tables.length)], date, time)))
+                    .build();
+            default -> throw new IllegalArgumentException("Unknown endpoint in mix: " + op);
+        };
+    }
+
+    private static long[] tableIds(HttpClient http, URI base, long restaurant, Duration timeout)
+            throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(base.resolve("/api/tables?restaurantId=" + restaurant))
+                .timeout(timeout).GET().build();
+        HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Could not load tables of restaurant " + restaurant + ": HTTP "
+                    + response.statusCode());
+        }
+        long[] ids = TABLE_ID.matcher(response.body()).results()
+                .mapToLong(m -> Long.parseLong(m.group(1)))
+                .toArray();
+        if (ids.length == 0) {
+            throw new IllegalStateException("Restaurant " + restaurant + " has no tables");
+        }
+        return ids;
+    }
+
+    private static String pick(Map<String, Integer> mix, int totalWeight, int value) {
+        for (Map.Entry<String, Integer> e : mix.entrySet()) {
+            value -= e.getValue();
+            if (value < 0) {
+                return e.getKey();
+            }
+        }
+        throw new IllegalStateException("Weights do not add up to " + totalWeight);
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Expected --option value, got " + args[i]);
+            }
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+        return options;
+    }
+
+    private static Map<String, Integer> mix(String value) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String part : value.split(",")) {
+            String[] kv = part.split("=");
+            int weight = Integer.parseInt(kv[1].trim());
+            if (weight > 0) {
+                mix.put(kv[0].trim(), weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("Mix must contain at least one positive weight");
+        }
+        return mix;
+    }
+
+    private static Duration duration(String value) {
+        return value.endsWith("ms")
+                ? Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)))
+                : Duration.ofSeconds(Long.parseLong(value.replace("s", "")));
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.clamp(index, 0, sorted.length - 1)];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    /**
+     * Latencies of one endpoint; appended by many clients, sorted once at the end.
+     */
+    private static final class Stats {
+        private final List<long[]> chunks = new ArrayList<>();
+        private final AtomicLong count = new AtomicLong();
+        private final LongAdder serverErrors = new LongAdder();
+        private final LongAdder transportErrors = new LongAdder();
+        private long[] current = new long[1 << 16];
+        private int size;
+
+        /**
+         * @param status HTTP status, or 0 if no response was received
+         */
+        synchronized void record(long nanos, int status) {
+            if (size == current.length) {
+                chunks.add(current);
+                current = new long[current.length];
+                size = 0;
+            }
+            current[size++] = nanos;
+            count.incrementAndGet();
+            if (status == 0) {
+                transportErrors.increment();
+            } else if (status >= 500) {
+                serverErrors.increment();
+            }
+        }
+
+        synchronized long[] sorted() {
+            long[] all = new long[(int) count.get()];
+            int offset = 0;
+            for (long[] chunk : chunks) {
+                System.arraycopy(chunk, 0, all, offset, chunk.length);
+                offset += chunk.length;
+            }
+            System.arraycopy(current, 0, all, offset, size);
+            Arrays.sort(all);
+            return all;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.arturkytt.restaurantreservationsystem.service;
+
+import com.arturkytt.restaurantreservationsystem.domain.Feature;
+import com.arturkytt.restaurantreservationsystem.domain.Zone;
+import com.arturkytt.restaurantreservationsystem.repository.DiningTableRepository;
+import com.arturkytt.restaurantreservationsystem.repository.ReservationRepository;
+import com.arturkytt.restaurantreservationsystem.repository.ReservationSlot;
+import com.arturkytt.restaurantreservationsystem.repository.RestaurantRepository;
+import com.arturkytt.restaurantreservationsystem.repository.TableRow;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.core.task.SyncTaskExecutor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Shared benchmark state: a synthetic floor plan of one restaurant with reservations, served by in-memory repositories.
+ *
+ * Data is generated deterministically (Random(42)):
+ * - tables are placed on a grid with a spacing of 2, zones and capacities rotate, features are random
+ * - every table gets two non-overlapping 2 hour reservations per day, on consecutive days
+ *   starting at FIRST_DATE, until the requested number of reservations is reached
+ *
+ * Queries rotate over QUERY_DATES dates inside the booked range, so benchmarks do not always
+ * hit the same day.
+ */
+@State(Scope.Benchmark)
+public class FloorPlanState {
+
+    static final Long RESTAURANT_ID = 1L;
+    static final LocalDate FIRST_DATE = LocalDate.of(2026, 1, 1);
+    static final int[] START_HOURS = {12, 14, 16, 18, 20};
+    static final int QUERY_DATES = 64;
+
+    private static final Zone[] ZONES = Zone.values();
+    private static final int[] CAPACITIES = {2, 4, 4, 6, 8};
+    private static final int GRID_COLUMNS = 50;
+
+    @Param({"10", "300", "5000"})
+    public int tables;
+
+    @Param({"1000000"})
+    public int reservations;
+
+    FloorPlanCache floorPlanCache;
+    ReservationIndex reservationIndex;
+    RecommendationService recommendationService;
+    AvailabilityService availabilityService;
+
+    LocalDate[] queryDates;
+    private int nextDate;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random rnd = new Random(42);
+        List<TableRow> tableRows = tables(tables, rnd);
+        List<ReservationSlot> stored = reservations(tables, reservations, rnd);
+
+        RestaurantRepository restaurantRepository = mock(RestaurantRepository.class);
+        DiningTableRepository tableRepository = mock(DiningTableRepository.class);
+        ReservationRepository reservationRepository = mock(ReservationRepository.class);
+        when(restaurantRepository.existsById(RESTAURANT_ID)).thenReturn(true);
+        when(tableRepository.findTableRows(RESTAURANT_ID)).thenReturn(tableRows);
+        when(reservationRepository.findSlotsStartingAfter(any())).thenReturn(stored);
+
+        floorPlanCache = new FloorPlanCache(restaurantRepository, tableRepository);
+        reservationIndex = new ReservationIndex(reservationRepository);
+        reservationIndex.reload();
+        ReservationMetrics metrics = new ReservationMetrics(new SimpleMeterRegistry(), reservationIndex);
+        recommendationService = new RecommendationService(floorPlanCache, reservationIndex, metrics, new SyncTaskExecutor());
+        availabilityService = new AvailabilityService(floorPlanCache, reservationIndex, metrics);
+
+        int bookedDays = Math.max(1, (reservations / tables + 1) / 2);
+        queryDates = new LocalDate[QUERY_DATES];
+        for (int i = 0; i < QUERY_DATES; i++) {
+            queryDates[i] = FIRST_DATE.plusDays(rnd.nextInt(bookedDays));
+        }
+    }
+
+    /**
+     * Returns the next query date of the rotation.
+     */
+    LocalDate nextDate() {
+        nextDate = (nextDate + 1) % QUERY_DATES;
+        return queryDates[nextDate];
+    }
+
+    private static List<TableRow> tables(int count, Random rnd) {
+        Feature[] features = Feature.values();
+        List<TableRow> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long id = (long) i + 1;
+            String code = String.format("T%05d", i + 1);
+            int capacity = CAPACITIES[i % CAPACITIES.length];
+            Zone zone = ZONES[(i / GRID_COLUMNS) % ZONES.length];
+            int x = 2 * (i % GRID_COLUMNS);
+            int y = 2 * (i / GRID_COLUMNS);
+            boolean any = false;
+            for (Feature f : features) {
+                if (rnd.nextInt(4) == 0) {
+                    result.add(new TableRow(id, code, capacity, zone, x, y, f));
+                    any = true;
+                }
+            }
+            if (!any) {
+                result.add(new TableRow(id, code, capacity, zone, x, y, null));
+            }
+        }
+        return result;
+    }
+
+    private static List<ReservationSlot> reservations(int tables, int count, Random rnd) {
+        List<ReservationSlot> result = new ArrayList<>(count);
+        int[] firstSlot = new int[tables];
+        for (int i = 0; i < count; i++) {
+            int tableIndex = i % tables;
+            int k = i / tables;
+            int slot;
+            if (k % 2 == 0) {
+                slot = rnd.nextInt(START_HOURS.length);
+                firstSlot[tableIndex] = slot;
+            } else {
+                // Slots are 2 hours apart, so any other slot of the day does not overlap the first one.
+                slot = (firstSlot[tableIndex] + 1 + rnd.nextInt(START_HOURS.length - 1)) % START_HOURS.length;
+            }
+            LocalDateTime start = LocalDateTime.of(FIRST_DATE.plusDays(k / 2), LocalTime.of(START_HOURS[slot], 0));
+
+            result.add(new ReservationSlot(RESTAURANT_ID, (long) tableIndex + 1, start, start.plusHours(2)));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,42 @@
+package com.arturkytt.restaurantreservationsystem.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.BitSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of overlap detection against the in-memory reservation index.
+ *
+ * - isOccupied: single table overlap check, as done before inserting a reservation
+ * - freeTablesAligned: free-table bitset of all tables from the DayOccupancy matrix
+ * - freeTablesUnaligned: the same for an off-grid time, answered by per-table interval checks
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OverlapBenchmark {
+
+    private static final LocalTime ALIGNED = LocalTime.of(18, 0);
+    private static final LocalTime UNALIGNED = LocalTime.of(18, 5);
+
+    @Benchmark
+    public boolean isOccupied(FloorPlanState state) {
+        LocalDateTime start = LocalDateTime.of(state.nextDate(), ALIGNED);
+        return state.reservationIndex.isOccupied(FloorPlanState.RESTAURANT_ID, 1L, start, start.plusHours(2));
+    }
+
+    @Benchmark
+    public BitSet freeTablesAligned(FloorPlanState state) {
+        return state.reservationIndex.freeTables(FloorPlanState.RESTAURANT_ID, state.nextDate(), ALIGNED, state.floorPlanCache.current(FloorPlanState.RESTAURANT_ID).tableIds());
+    }
+
+    @Benchmark
+    public BitSet freeTablesUnaligned(FloorPlanState state) {
+        return state.reservationIndex.freeTables(FloorPlanState.RESTAURANT_ID, state.nextDate(), UNALIGNED, state.floorPlanCache.current(FloorPlanState.RESTAURANT_ID).tableIds());
+    }
+}
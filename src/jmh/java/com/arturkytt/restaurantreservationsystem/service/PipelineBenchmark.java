@@ -0,0 +1,39 @@
+package com.arturkytt.restaurantreservationsystem.service;
+
+import com.arturkytt.restaurantreservationsystem.domain.Feature;
+import com.arturkytt.restaurantreservationsystem.dto.RecommendationResponseDto;
+import com.arturkytt.restaurantreservationsystem.dto.TableAvailabilityDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+import java.time.LocalTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the full read pipelines as called by the controllers.
+ *
+ * - recommend: RecommendationService.recommend with default limit
+ * - getAvailability: AvailabilityService.getAvailability for all zones
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PipelineBenchmark {
+
+    private static final LocalTime TIME = LocalTime.of(18, 0);
+    private static final Set<Feature> FEATURES = EnumSet.of(Feature.WINDOW);
+
+    @Benchmark
+    public RecommendationResponseDto recommend(FloorPlanState state) {
+        return state.recommendationService.recommend(FloorPlanState.RESTAURANT_ID, state.nextDate(), TIME, 4, null, FEATURES);
+    }
+
+    @Benchmark
+    public List<TableAvailabilityDto> getAvailability(FloorPlanState state) {
+        return state.availabilityService.getAvailability(FloorPlanState.RESTAURANT_ID, state.nextDate(), TIME, 4, null);
+    }
+}
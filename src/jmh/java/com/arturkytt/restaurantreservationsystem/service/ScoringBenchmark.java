@@ -0,0 +1,38 @@
+package com.arturkytt.restaurantreservationsystem.service;
+
+import com.arturkytt.restaurantreservationsystem.domain.Feature;
+import com.arturkytt.restaurantreservationsystem.domain.Zone;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.EnumSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of recommendation scoring.
+ *
+ * - scoreAllTables: score of every table of the floor plan for one request key
+ * - buildRanking: scoring plus sorting, i.e. the cost of a ranking cache miss
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ScoringBenchmark {
+
+    private static final int FEATURES = FeatureMask.of(EnumSet.of(Feature.WINDOW, Feature.QUIET));
+
+    @Benchmark
+    public void scoreAllTables(FloorPlanState state, Blackhole bh) {
+        FloorPlanSnapshot floorPlan = state.floorPlanCache.current(FloorPlanState.RESTAURANT_ID);
+        for (int row = 0; row < floorPlan.size(); row++) {
+            bh.consume(RecommendationRanking.score(floorPlan.table(row), 4, Zone.MAIN_HALL, FEATURES));
+        }
+    }
+
+    @Benchmark
+    public RecommendationRanking buildRanking(FloorPlanState state) {
+        return RecommendationRanking.build(state.floorPlanCache.current(FloorPlanState.RESTAURANT_ID), 4, Zone.MAIN_HALL, FEATURES);
+    }
+}
@@ -2,92 +2,250 @@ package com.arturkytt.restaurantreservationsystem.config;
 
 import com.arturkytt.restaurantreservationsystem.domain.*;
 import com.arturkytt.restaurantreservationsystem.repository.DiningTableRepository;
-import com.arturkytt.restaurantreservationsystem.repository.ReservationRepository;
+import com.arturkytt.restaurantreservationsystem.repository.RestaurantRepository;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
 
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 
 /**
- * Seeds the database with initial demo data on application startup.
+ * Seeds the database with demo or load-test data on application startup.
  *
- * Reservations are generated deterministically using Random(42) to make the dataset reproducible.
- * The seeder creates a fixed set of dining tables and then generates 0-2 reservations
- * per table per day for a 7-day period starting from the current date.
+ * The amount of data is configured through SeedProperties (app.seed.*). Without settings the seeder
+ * creates one restaurant with the fixed 10-table demo floor plan and 0-2 reservations per table per day
+ * for a 7-day period starting from the current date. With several restaurants, each one gets its own
+ * floor plan and reservations, generated one restaurant after the other.
+ *
+ * Data is generated deterministically from the configured seed (Random(42) by default), so the same
+ * settings always produce the same dataset.
+ * Reservations of the same table never overlap, as required by the reservation_no_overlap constraint.
+ *
+ * Tables are stored through JPA (they are few and have a feature collection). Reservations are
+ * streamed with PostgreSQL COPY, which loads large volumes several times faster than row inserts.
  *
  * Reservation duration is currently assumed to be 2 hours.
  */
 @Configuration
+@EnableConfigurationProperties(SeedProperties.class)
+@ConditionalOnProperty(name = "app.seed.enabled", havingValue = "true", matchIfMissing = true)
 public class DataSeeder {
 
+    private static final Logger log = LoggerFactory.getLogger(DataSeeder.class);
+
+    private static final String COPY_RESERVATIONS =
+            "copy reservation (id, restaurant_id, dining_table_id, start_time, end_time, party_size) from stdin";
+
+    private static final int[] GENERATED_CAPACITIES = {2, 2, 4, 4, 4, 6, 8};
+    private static final int GRID_COLUMNS = 10;
+
     /**
-     * Seeds dining tables and reservations if the database is empty.
+     * Seeds restaurants, dining tables and reservations if the database is empty.
      *
+     * @param restaurantRepo repository used to persist restaurants
      * @param tableRepo repository used to persist dining tables
-     * @param reservationRepo repository used to persist reservations
+     * @param jdbcTemplate JDBC access used to copy reservations
+     * @param properties generator settings
      * @return a CommandLineRunner that performs the seeding
      */
     @Bean
-    CommandLineRunner seedData(DiningTableRepository tableRepo, ReservationRepository reservationRepo) {
+    CommandLineRunner seedData(RestaurantRepository restaurantRepo, DiningTableRepository tableRepo,
+                               JdbcTemplate jdbcTemplate, SeedProperties properties) {
         return args -> {
-            if (tableRepo.count() > 0) {
+            if (restaurantRepo.count() > 0) {
                 return; // already seeded
             }
+            long started = System.nanoTime();
+            Random rnd = new Random(properties.seed());
+            LocalDate startDate = properties.startDate() != null ? properties.startDate() : LocalDate.now();
+            long tableCount = 0;
+            long inserted = 0;
 
-            // 1. Create tables
-            List<DiningTable> tables = List.of(
-                    createTable("T1", 2, Zone.MAIN_HALL, 2, 2, EnumSet.of(Feature.QUIET)),
-                    createTable("T2", 2, Zone.MAIN_HALL, 4, 2, EnumSet.of(Feature.WINDOW)),
-                    createTable("T3", 4, Zone.MAIN_HALL, 6, 2, EnumSet.of(Feature.WINDOW)),
-                    createTable("T4", 4, Zone.MAIN_HALL, 2, 4, EnumSet.of(Feature.ACCESSIBLE)),
-                    createTable("T5", 6, Zone.MAIN_HALL, 4, 4, EnumSet.of(Feature.KIDS_NEAR)),
+            for (int k = 1; k <= properties.restaurants(); k++) {
+                // 1. Create the restaurant and its tables
+                Restaurant restaurant = new Restaurant();
+                restaurant.setName("Restaurant " + k);
+                restaurantRepo.save(restaurant);
 
-                    createTable("T6", 2, Zone.TERRACE, 2, 6, EnumSet.of(Feature.WINDOW)),
-                    createTable("T7", 4, Zone.TERRACE, 4, 6, EnumSet.of(Feature.WINDOW, Feature.QUIET)),
-                    createTable("T8", 6, Zone.TERRACE, 6, 6, EnumSet.noneOf(Feature.class)),
+                List<DiningTable> tables = properties.tables() == null
+                        ? demoTables()
+                        : generateTables(properties.tables(), properties.zoneMix(), rnd);
+                tables.forEach(t -> t.setRestaurant(restaurant));
+                tableRepo.saveAll(tables);
+                tableCount += tables.size();
 
-                    createTable("P1", 4, Zone.PRIVATE_ROOM, 9, 2, EnumSet.of(Feature.QUIET)),
-                    createTable("P2", 8, Zone.PRIVATE_ROOM, 9, 4, EnumSet.of(Feature.QUIET, Feature.ACCESSIBLE))
-            );
+                // 2. Random reservations
+                inserted += insertReservations(jdbcTemplate, restaurant, tables, startDate, properties, rnd);
+            }
 
-            tableRepo.saveAll(tables);
+            log.info("Seeded {} restaurants, {} tables and {} reservations in {} ms",
+                    properties.restaurants(), tableCount, inserted, (System.nanoTime() - started) / 1_000_000);
+        };
+    }
 
-            // 2. Random reservations
-            Random rnd = new Random(42);
-            LocalDate startDate = LocalDate.now();
-            int days = 7;
+    /**
+     * Generates the reservations and streams them into the reservation table with PostgreSQL COPY.
+     *
+     * Per table and day, 0..reservationsPerTablePerDay start times between 12:00 and 19:00 are drawn;
+     * a start time whose reservation would overlap an already accepted one is skipped.
+     *
+     * Ids are taken as one consecutive block starting at nextval('reservation_seq'); afterwards the
+     * sequence is moved to the end of the block, so ids allocated by Hibernate do not collide.
+     * Rows are sent to the server in chunks of batchSize rows.
+     *
+     * @return number of inserted reservations
+     */
+    private long insertReservations(JdbcTemplate jdbcTemplate, Restaurant restaurant, List<DiningTable> tables,
+                                    LocalDate startDate, SeedProperties properties, Random rnd) {
+        return jdbcTemplate.execute((ConnectionCallback<Long>) con -> {
+            long firstId = jdbcTemplate.queryForObject("select nextval('reservation_seq')", Long.class);
+            CopyIn copy = con.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_RESERVATIONS);
 
-            for (int d = 0; d < days; d++) {
-                LocalDate date = startDate.plusDays(d);
+            StringBuilder chunk = new StringBuilder();
+            int chunkRows = 0;
+            long inserted = 0;
+            List<LocalDateTime> accepted = new ArrayList<>();
+            try {
+                for (int d = 0; d < properties.days(); d++) {
+                    LocalDate date = startDate.plusDays(d);
 
-                for (DiningTable table : tables) {
-                    // 0-2 reservations per table per day
-                    int count = rnd.nextInt(3);
+                    for (DiningTable table : tables) {
+                        // 0..N reservations per table per day
+                        int count = rnd.nextInt(properties.reservationsPerTablePerDay() + 1);
+                        accepted.clear();
 
-                    for (int i = 0; i < count; i++) {
-                        LocalTime start = LocalTime.of(12 + rnd.nextInt(8), 0); // 12:00..19:00
-                        LocalDateTime startTime = LocalDateTime.of(date, start);
-                        LocalDateTime endTime = startTime.plus(ReservationPolicy.DEFAULT_DURATION);
+                        for (int i = 0; i < count; i++) {
+                            LocalTime start = LocalTime.of(12 + rnd.nextInt(8), 0); // 12:00..19:00
+                            LocalDateTime startTime = LocalDateTime.of(date, start);
+                            LocalDateTime endTime = startTime.plus(ReservationPolicy.DEFAULT_DURATION);
 
-                        int partySize = Math.min(table.getCapacity(), 1 + rnd.nextInt(table.getCapacity()));
+                            int partySize = Math.min(table.getCapacity(), 1 + rnd.nextInt(table.getCapacity()));
 
-                        Reservation r = new Reservation();
-                        r.setTable(table);
-                        r.setStartTime(startTime);
-                        r.setEndTime(endTime);
-                        r.setPartySize(partySize);
+                            // skip a reservation that would overlap an accepted one (rejected by the DB)
+                            if (overlapsAny(accepted, startTime, endTime)) {
+                                continue;
+                            }
+                            accepted.add(startTime);
 
-                        reservationRepo.save(r);
+                            chunk.append(firstId + inserted).append('\t')
+                                    .append(restaurant.getId()).append('\t')
+                                    .append(table.getId()).append('\t')
+                                    .append(startTime).append('\t')
+                                    .append(endTime).append('\t')
+                                    .append(partySize).append('\n');
+                            inserted++;
+                            if (++chunkRows == properties.batchSize()) {
+                                writeChunk(copy, chunk);
+                                chunkRows = 0;
+                            }
+                        }
                     }
                 }
+                writeChunk(copy, chunk);
+                copy.endCopy();
+            } finally {
+                if (copy.isActive()) {
+                    copy.cancelCopy();
+                }
             }
-        };
+
+            if (inserted > 1) {
+                jdbcTemplate.queryForObject("select setval('reservation_seq', ?)", Long.class, firstId + inserted - 1);
+            }
+            return inserted;
+        });
+    }
+
+    private static void writeChunk(CopyIn copy, StringBuilder chunk) throws SQLException {
+        byte[] bytes = chunk.toString().getBytes(StandardCharsets.UTF_8);
+        copy.writeToCopy(bytes, 0, bytes.length);
+        chunk.setLength(0);
+    }
+
+    private static boolean overlapsAny(List<LocalDateTime> acceptedStarts, LocalDateTime startTime, LocalDateTime endTime) {
+        for (LocalDateTime existingStart : acceptedStarts) {
+            LocalDateTime existingEnd = existingStart.plus(ReservationPolicy.DEFAULT_DURATION);
+            if (existingStart.isBefore(endTime) && existingEnd.isAfter(startTime)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the fixed demo floor plan.
+     */
+    private List<DiningTable> demoTables() {
+        return List.of(
+                createTable("T1", 2, Zone.MAIN_HALL, 2, 2, EnumSet.of(Feature.QUIET)),
+                createTable("T2", 2, Zone.MAIN_HALL, 4, 2, EnumSet.of(Feature.WINDOW)),
+                createTable("T3", 4, Zone.MAIN_HALL, 6, 2, EnumSet.of(Feature.WINDOW)),
+                createTable("T4", 4, Zone.MAIN_HALL, 2, 4, EnumSet.of(Feature.ACCESSIBLE)),
+                createTable("T5", 6, Zone.MAIN_HALL, 4, 4, EnumSet.of(Feature.KIDS_NEAR)),
+
+                createTable("T6", 2, Zone.TERRACE, 2, 6, EnumSet.of(Feature.WINDOW)),
+                createTable("T7", 4, Zone.TERRACE, 4, 6, EnumSet.of(Feature.WINDOW, Feature.QUIET)),
+                createTable("T8", 6, Zone.TERRACE, 6, 6, EnumSet.noneOf(Feature.class)),
+
+                createTable("P1", 4, Zone.PRIVATE_ROOM, 9, 2, EnumSet.of(Feature.QUIET)),
+                createTable("P2", 8, Zone.PRIVATE_ROOM, 9, 4, EnumSet.of(Feature.QUIET, Feature.ACCESSIBLE))
+        );
+    }
+
+    /**
+     * Generates a floor plan with the given number of tables.
+     *
+     * Tables are split between zones according to the zone weights. Each zone is laid out as its own
+     * block of a grid with a spacing of 2, so neighbouring tables of a zone are adjacent.
+     */
+    private List<DiningTable> generateTables(int count, Map<Zone, Integer> zoneMix, Random rnd) {
+        int totalWeight = zoneMix.values().stream().mapToInt(Integer::intValue).sum();
+        List<DiningTable> tables = new ArrayList<>(count);
+        int blockY = 0;
+        int assigned = 0;
+        int weightSoFar = 0;
+
+        for (Zone zone : Zone.values()) {
+            int weight = zoneMix.getOrDefault(zone, 0);
+            if (weight == 0) {
+                continue;
+            }
+            weightSoFar += weight;
+            int zoneTables = (int) ((long) count * weightSoFar / totalWeight) - assigned;
+
+            for (int i = 0; i < zoneTables; i++) {
+                EnumSet<Feature> features = EnumSet.noneOf(Feature.class);
+                for (Feature f : Feature.values()) {
+                    if (rnd.nextInt(4) == 0) {
+                        features.add(f);
+                    }
+                }
+                int capacity = GENERATED_CAPACITIES[rnd.nextInt(GENERATED_CAPACITIES.length)];
+                int x = 2 * (1 + i % GRID_COLUMNS);
+                int y = 2 * (1 + blockY + i / GRID_COLUMNS);
+                tables.add(createTable(String.format("%s%d", zone.name().charAt(0), i + 1), capacity, zone, x, y, features));
+            }
+            assigned += zoneTables;
+            blockY += (zoneTables + GRID_COLUMNS - 1) / GRID_COLUMNS + 1;
+        }
+        return tables;
     }
 
     /**
@@ -111,4 +269,4 @@ public class DataSeeder {
         t.setFeatures(features);
         return t;
     }
-}
\ No newline at end of file
+}
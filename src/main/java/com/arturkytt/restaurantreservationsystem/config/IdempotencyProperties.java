@@ -0,0 +1,31 @@
+package com.arturkytt.restaurantreservationsystem.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of Idempotency-Key handling for reservation creation (IdempotencyStore), bound from app.idempotency.*.
+ *
+ * - ttl: how long a key is remembered, in memory and in the reservation_idempotency_key table;
+ *   a retry after that is treated as a new request
+ * - maxEntries: maximum number of keys kept in memory; the oldest keys are evicted first and
+ *   are then answered from the database
+ *
+ * Expired keys are deleted from the database on app.idempotency.cleanup-cron (hourly by default).
+ */
+@ConfigurationProperties(prefix = "app.idempotency")
+public record IdempotencyProperties(
+        @DefaultValue("24h") Duration ttl,
+        @DefaultValue("100000") int maxEntries
+) {
+    public IdempotencyProperties {
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("app.idempotency.ttl must be positive");
+        }
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("app.idempotency.max-entries must be at least 1");
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.arturkytt.restaurantreservationsystem.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Settings of the journaled write mode (ReservationJournal), bound from app.journal.*.
+ *
+ * - enabled: acknowledge single reservations once they are in the local journal and write them
+ *   to the database in the background
+ * - path: journal file; created on first use
+ * - size: size of a new journal file (at most 1GB, mapped into memory); an existing file keeps its size
+ * - flushInterval: how often the background writer copies journaled reservations to the database
+ * - batchSize: maximum reservations per database transaction of the background writer
+ */
+@ConfigurationProperties(prefix = "app.journal")
+public record JournalProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("reservation.journal") String path,
+        @DefaultValue("64MB") DataSize size,
+        @DefaultValue("50ms") Duration flushInterval,
+        @DefaultValue("1000") int batchSize
+) {
+    public JournalProperties {
+        if (size.toBytes() < 4096 || size.toBytes() > 1L << 30) {
+            throw new IllegalArgumentException("app.journal.size must be between 4KB and 1GB");
+        }
+        if (flushInterval.isNegative() || flushInterval.isZero()) {
+            throw new IllegalArgumentException("app.journal.flush-interval must be positive");
+        }
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("app.journal.batch-size must be at least 1");
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.arturkytt.restaurantreservationsystem.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings of the monthly reservation partitions (ReservationPartitionManager), bound from app.partitions.*.
+ *
+ * - enabled: convert the reservation table to monthly partitions and maintain them
+ * - monthsAhead: number of months after the current one that always have a partition
+ * - retainMonths: number of past months kept in the reservation table; older months are moved
+ *   to reservation_history
+ *
+ * The maintenance schedule is app.partitions.cron (daily at 03:00 by default).
+ */
+@ConfigurationProperties(prefix = "app.partitions")
+public record PartitionProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("3") int monthsAhead,
+        @DefaultValue("12") int retainMonths
+) {
+    public PartitionProperties {
+        if (monthsAhead < 0) {
+            throw new IllegalArgumentException("app.partitions.months-ahead must not be negative");
+        }
+        if (retainMonths < 0) {
+            throw new IllegalArgumentException("app.partitions.retain-months must not be negative");
+        }
+    }
+}
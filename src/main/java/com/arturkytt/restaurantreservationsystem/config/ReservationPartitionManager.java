@@ -0,0 +1,365 @@
+package com.arturkytt.restaurantreservationsystem.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the reservation table range-partitioned by month on start_time.
+ *
+ * Almost every query targets today and the following weeks while the table keeps growing with
+ * history. With monthly partitions the planner skips the months outside a query's start_time range
+ * (the overlap queries in ReservationRepository bound start_time on both sides for this), and old
+ * months leave the table as a whole instead of row by row.
+ *
+ * - On startup a plain reservation table (as created by Hibernate) is converted in one transaction:
+ *   rows, indexes and foreign keys move to a partitioned table with primary key (id, start_time)
+ * - Partitions (reservation_yyyy_mm) exist for the current month and app.partitions.months-ahead
+ *   following months, plus any past month found in reservation_default; the default partition
+ *   takes everything else and is emptied into the matching partition when that partition is created
+ * - Months that ended more than app.partitions.retain-months ago are detached and attached to the
+ *   partitioned reservation_history table, which the application does not read
+ * - Maintenance runs on startup and on app.partitions.cron (daily at 03:00 by default)
+ *
+ * PostgreSQL only allows exclusion constraints on a partitioned table if they compare the partition
+ * key for equality, which reservation_no_overlap does not. Every partition therefore gets its own
+ * copy (reservation_no_overlap_yyyy_mm). Reservations starting in different months can only meet
+ * around midnight at a month boundary; they are checked by the reservation_overlap_guard trigger:
+ * - a row whose window [start - DEFAULT_DURATION, end) crosses a month boundary takes a
+ *   transaction-level advisory lock of its table and looks for overlapping rows of other months
+ * - an overlap is raised as exclusion_violation (SQLState 23P01) naming reservation_no_overlap, so
+ *   callers handle it exactly like a violation of the partition constraint
+ * Two overlapping rows of different months both cross the boundary in this sense, so they take the
+ * same lock and the second one sees the first once it has committed. Rows away from month
+ * boundaries skip the trigger body.
+ *
+ * Schema changes are serialized with a transaction-level advisory lock, so several application
+ * instances can start or run the job at the same time.
+ */
+@Component
+@EnableConfigurationProperties(PartitionProperties.class)
+public class ReservationPartitionManager {
+
+    /**
+     * Partition receiving reservations of months without their own partition.
+     */
+    public static final String DEFAULT_PARTITION = "reservation_default";
+
+    /**
+     * Partitioned table holding the archived months.
+     */
+    public static final String HISTORY_TABLE = "reservation_history";
+
+    private static final Logger log = LoggerFactory.getLogger(ReservationPartitionManager.class);
+
+    private static final String LEGACY_TABLE = "reservation_unpartitioned";
+    private static final long LOCK_KEY = 0x7265736572766174L; // "reservat"
+    private static final String OVERLAP_GUARD = "reservation_overlap_guard";
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+    private static final Pattern MONTH_PARTITION = Pattern.compile("reservation_(\\d{4})_(\\d{2})");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PartitionProperties properties;
+
+    public ReservationPartitionManager(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                       PartitionProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+    }
+
+    /**
+     * Converts the reservation table to monthly partitions if it is not partitioned yet,
+     * then runs the maintenance.
+     *
+     * @return true if the reservation table is partitioned afterwards
+     */
+    public boolean partitionReservations() {
+        if (!properties.enabled()) {
+            return false;
+        }
+        try {
+            String kind = relkind();
+            if (kind.isEmpty()) {
+                return false;
+            }
+            jdbcTemplate.execute("create extension if not exists btree_gist");
+            if (!"p".equals(kind)) {
+                transactionTemplate.executeWithoutResult(status -> convert());
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not partition the reservation table; it stays unpartitioned: {}",
+                    e.getMostSpecificCause().getMessage());
+            return false;
+        }
+        run("create trigger " + OVERLAP_GUARD, this::createOverlapGuard);
+        maintain();
+        return true;
+    }
+
+    /**
+     * Creates the partitions of the coming months and archives the months past the retention period.
+     *
+     * Each partition is created or archived in its own transaction; a failure is logged and retried
+     * on the next run.
+     */
+    @Scheduled(cron = "${app.partitions.cron:0 0 3 * * *}")
+    public void maintain() {
+        if (!properties.enabled() || !"p".equals(relkind())) {
+            return;
+        }
+        YearMonth current = YearMonth.now();
+        Set<YearMonth> months = new TreeSet<>();
+        for (int i = 0; i <= properties.monthsAhead(); i++) {
+            months.add(current.plusMonths(i));
+        }
+        // Past rows inserted without a partition (e.g. backfilled history) get theirs as well.
+        jdbcTemplate.queryForList("""
+            select distinct date_trunc('month', start_time)::date
+            from %s
+            where start_time < ?
+        """.formatted(DEFAULT_PARTITION), LocalDate.class, current.atDay(1))
+                .forEach(day -> months.add(YearMonth.from(day)));
+        for (YearMonth month : months) {
+            run("create partition " + partitionName(month), () -> createPartition(month));
+        }
+
+        YearMonth oldestKept = current.minusMonths(properties.retainMonths());
+        for (String partition : partitions()) {
+            YearMonth month = monthOf(partition);
+            if (month != null && month.isBefore(oldestKept)) {
+                run("archive partition " + partition, () -> archive(partition, month));
+            }
+        }
+    }
+
+    private void run(String step, Runnable action) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                lock();
+                action.run();
+            });
+        } catch (DataAccessException e) {
+            log.warn("Could not {}: {}", step, e.getMostSpecificCause().getMessage());
+        }
+    }
+
+    private void convert() {
+        lock();
+        if (!"r".equals(relkind())) {
+            return; // converted by another instance in the meantime
+        }
+        long started = System.nanoTime();
+        jdbcTemplate.execute("alter table reservation rename to " + LEGACY_TABLE);
+
+        // Secondary indexes and foreign keys are recreated on the new table; the primary key and the
+        // exclusion constraint are replaced by partition-aware versions.
+        List<String> indexes = jdbcTemplate.queryForList("""
+            select pg_get_indexdef(i.indexrelid)
+            from pg_index i
+            where i.indrelid = '%s'::regclass
+              and not exists (
+                  select 1 from pg_constraint c
+                  where c.conrelid = i.indrelid and c.conindid = i.indexrelid)
+        """.formatted(LEGACY_TABLE), String.class);
+        List<Map<String, Object>> foreignKeys = jdbcTemplate.queryForList("""
+            select conname, pg_get_constraintdef(oid) as definition
+            from pg_constraint
+            where conrelid = '%s'::regclass
+              and contype = 'f'
+        """.formatted(LEGACY_TABLE));
+
+        jdbcTemplate.execute("""
+            create table reservation (like %s including defaults)
+            partition by range (start_time)
+        """.formatted(LEGACY_TABLE));
+        jdbcTemplate.execute("create table %s partition of reservation default".formatted(DEFAULT_PARTITION));
+        jdbcTemplate.execute(noOverlapConstraint(DEFAULT_PARTITION, "default"));
+
+        LocalDate oldest = jdbcTemplate.queryForObject(
+                "select min(start_time)::date from " + LEGACY_TABLE, LocalDate.class);
+        YearMonth last = YearMonth.now().plusMonths(properties.monthsAhead());
+        YearMonth month = oldest != null ? YearMonth.from(oldest) : YearMonth.now();
+        for (; !month.isAfter(last); month = month.plusMonths(1)) {
+            createPartition(month);
+        }
+
+        int rows = jdbcTemplate.update("insert into reservation select * from " + LEGACY_TABLE);
+        jdbcTemplate.execute("drop table " + LEGACY_TABLE);
+
+        jdbcTemplate.execute("alter table reservation add primary key (id, start_time)");
+        for (String index : indexes) {
+            jdbcTemplate.execute(index.replaceFirst(" ON (\\S+\\.)?" + LEGACY_TABLE + " ", " ON reservation "));
+        }
+        for (Map<String, Object> fk : foreignKeys) {
+            jdbcTemplate.execute("alter table reservation add constraint %s %s"
+                    .formatted(fk.get("conname"), fk.get("definition")));
+        }
+        log.info("Partitioned the reservation table by month ({} rows) in {} ms",
+                rows, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Creates the partition of the given month, moving its rows out of the default partition.
+     */
+    private void createPartition(YearMonth month) {
+        String partition = partitionName(month);
+        if (exists(partition)) {
+            return;
+        }
+        LocalDate from = month.atDay(1);
+        LocalDate to = month.plusMonths(1).atDay(1);
+
+        jdbcTemplate.execute("create table %s (like reservation including defaults)".formatted(partition));
+        int moved = jdbcTemplate.update("""
+            with moved as (
+                delete from %s
+                where start_time >= ? and start_time < ?
+                returning *)
+            insert into %s select * from moved
+        """.formatted(DEFAULT_PARTITION, partition), from, to);
+        jdbcTemplate.execute(noOverlapConstraint(partition, month.format(SUFFIX)));
+        jdbcTemplate.execute("alter table reservation attach partition %s for values from ('%s') to ('%s')"
+                .formatted(partition, from, to));
+        log.info("Created reservation partition {} ({} rows moved from {})", partition, moved, DEFAULT_PARTITION);
+    }
+
+    /**
+     * Moves the partition of the given month from reservation to reservation_history.
+     */
+    private void archive(String partition, YearMonth month) {
+        jdbcTemplate.execute("""
+            create table if not exists %s (like reservation including defaults)
+            partition by range (start_time)
+        """.formatted(HISTORY_TABLE));
+        // Columns added to reservation after the history table was created.
+        List<Map<String, Object>> missing = jdbcTemplate.queryForList("""
+            select a.attname, format_type(a.atttypid, a.atttypmod) as type
+            from pg_attribute a
+            where a.attrelid = 'reservation'::regclass
+              and a.attnum > 0
+              and not a.attisdropped
+              and not exists (
+                  select 1 from pg_attribute h
+                  where h.attrelid = '%s'::regclass
+                    and h.attname = a.attname
+                    and not h.attisdropped)
+        """.formatted(HISTORY_TABLE));
+        for (Map<String, Object> column : missing) {
+            jdbcTemplate.execute("alter table %s add column %s %s"
+                    .formatted(HISTORY_TABLE, column.get("attname"), column.get("type")));
+        }
+
+        jdbcTemplate.execute("alter table reservation detach partition " + partition);
+        jdbcTemplate.execute("alter table %s attach partition %s for values from ('%s') to ('%s')"
+                .formatted(HISTORY_TABLE, partition, month.atDay(1), month.plusMonths(1).atDay(1)));
+        log.info("Archived reservation partition {} to {}", partition, HISTORY_TABLE);
+    }
+
+    /**
+     * Creates or replaces the trigger rejecting overlaps between reservations of different months.
+     * Row triggers of the partitioned table are cloned to every attached partition.
+     */
+    private void createOverlapGuard() {
+        jdbcTemplate.execute("""
+            create or replace function %1$s() returns trigger
+            language plpgsql as $guard$
+            declare
+                duration constant interval := interval '%2$d seconds';
+            begin
+                if date_trunc('month', new.start_time - duration) = date_trunc('month', new.start_time)
+                   and date_trunc('month', new.end_time - interval '1 microsecond') = date_trunc('month', new.start_time) then
+                    return new;
+                end if;
+                perform pg_advisory_xact_lock(hashtextextended('%1$s:' || new.dining_table_id, 0));
+                if exists (
+                    select 1
+                    from reservation r
+                    where r.dining_table_id = new.dining_table_id
+                      and r.id <> new.id
+                      and r.start_time > new.start_time - duration
+                      and r.start_time < new.end_time
+                      and r.end_time > new.start_time
+                      and date_trunc('month', r.start_time) <> date_trunc('month', new.start_time)
+                ) then
+                    raise exception 'conflicting key value violates exclusion constraint "%3$s"'
+                        using errcode = 'exclusion_violation',
+                              detail = format('Table %%s is already reserved around %%s.', new.dining_table_id, new.start_time);
+                end if;
+                return new;
+            end
+            $guard$
+        """.formatted(OVERLAP_GUARD, ReservationPolicy.DEFAULT_DURATION.toSeconds(),
+                ReservationSchemaInitializer.NO_OVERLAP_CONSTRAINT));
+        jdbcTemplate.execute("drop trigger if exists %1$s on reservation".formatted(OVERLAP_GUARD));
+        jdbcTemplate.execute("""
+            create trigger %1$s
+                before insert or update of dining_table_id, start_time, end_time on reservation
+                for each row execute function %1$s()
+        """.formatted(OVERLAP_GUARD));
+    }
+
+    private String noOverlapConstraint(String table, String suffix) {
+        return """
+            alter table %s
+                add constraint %s_%s
+                exclude using gist (
+                    dining_table_id with =,
+                    tsrange(start_time, end_time) with &&
+                )
+        """.formatted(table, ReservationSchemaInitializer.NO_OVERLAP_CONSTRAINT, suffix);
+    }
+
+    private List<String> partitions() {
+        return jdbcTemplate.queryForList("""
+            select c.relname
+            from pg_inherits i
+            join pg_class c on c.oid = i.inhrelid
+            where i.inhparent = 'reservation'::regclass
+            order by c.relname
+        """, String.class);
+    }
+
+    /**
+     * Returns the relkind of the reservation table ("r" plain, "p" partitioned), or "" if it does not exist.
+     */
+    private String relkind() {
+        return jdbcTemplate.queryForObject(
+                "select coalesce((select relkind::text from pg_class where oid = to_regclass('reservation')), '')",
+                String.class);
+    }
+
+    private boolean exists(String table) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "select to_regclass(?) is not null", Boolean.class, table));
+    }
+
+    private void lock() {
+        jdbcTemplate.execute("select pg_advisory_xact_lock(" + LOCK_KEY + ")");
+    }
+
+    static String partitionName(YearMonth month) {
+        return "reservation_" + month.format(SUFFIX);
+    }
+
+    static YearMonth monthOf(String partition) {
+        Matcher m = MONTH_PARTITION.matcher(partition);
+        return m.matches() ? YearMonth.of(Integer.parseInt(m.group(1)), Integer.parseInt(m.group(2))) : null;
+    }
+}
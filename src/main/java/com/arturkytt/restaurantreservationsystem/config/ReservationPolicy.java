@@ -1,6 +1,7 @@
 package com.arturkytt.restaurantreservationsystem.config;
 
 import java.time.Duration;
+import java.time.LocalTime;
 
 /**
  * Central place for reservation-related defaults used across the application.
@@ -15,4 +16,19 @@ public final class ReservationPolicy {
      * Default duration used for a reservation.
      */
     public static final Duration DEFAULT_DURATION = Duration.ofHours(2);
+
+    /**
+     * Granularity of the reservation time grid; reservations start on multiples of this length.
+     */
+    public static final Duration SLOT_LENGTH = Duration.ofMinutes(15);
+
+    /**
+     * Earliest reservation start time of a day, used when searching for free slots.
+     */
+    public static final LocalTime OPENING_TIME = LocalTime.of(12, 0);
+
+    /**
+     * Latest reservation start time of a day, used when searching for free slots.
+     */
+    public static final LocalTime LAST_SEATING = LocalTime.of(22, 0);
 }
\ No newline at end of file
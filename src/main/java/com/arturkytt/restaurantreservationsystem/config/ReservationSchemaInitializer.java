@@ -0,0 +1,143 @@
+package com.arturkytt.restaurantreservationsystem.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Adds PostgreSQL-specific schema objects that Hibernate's ddl-auto cannot express.
+ *
+ * Creates the reservation_no_overlap exclusion constraint, which makes the database reject
+ * two reservations of the same table whose [start_time, end_time) ranges intersect.
+ * This closes the race between the service-level overlap check and the insert.
+ * When the table is partitioned by ReservationPartitionManager, each partition carries its own copy
+ * of the constraint instead, and a trigger covers reservations of adjacent months.
+ *
+ * Databases created before restaurants were introduced are migrated: existing tables and reservations
+ * are assigned to a default restaurant, the restaurant_id columns are made NOT NULL and the old
+ * unique constraint on dining_table.code (codes are now unique per restaurant) is dropped.
+ *
+ * It also moves reservation_seq past the highest stored id. Reservation ids used to be generated
+ * by an IDENTITY column; the pooled sequence that replaced it (to allow batched inserts) must not
+ * hand out ids that already exist.
+ *
+ * Runs before DataSeeder. The statements are idempotent; if the constraint cannot be created
+ * (for example because existing rows already overlap) a warning is logged and the application
+ * keeps relying on the service-level check.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ReservationSchemaInitializer implements CommandLineRunner {
+
+    /**
+     * Name of the exclusion constraint preventing overlapping reservations of one table.
+     */
+    public static final String NO_OVERLAP_CONSTRAINT = "reservation_no_overlap";
+
+    /**
+     * Name of the restaurant that rows stored before restaurants were introduced are assigned to.
+     */
+    public static final String DEFAULT_RESTAURANT_NAME = "Restaurant 1";
+
+    private static final Logger log = LoggerFactory.getLogger(ReservationSchemaInitializer.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ReservationPartitionManager partitionManager;
+
+    public ReservationSchemaInitializer(JdbcTemplate jdbcTemplate, ReservationPartitionManager partitionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.partitionManager = partitionManager;
+    }
+
+    @Override
+    public void run(String... args) {
+        assignRestaurants();
+        alignReservationSequence();
+        if (!partitionManager.partitionReservations()) {
+            createNoOverlapConstraint();
+        }
+    }
+
+    private void assignRestaurants() {
+        try {
+            Integer unassigned = jdbcTemplate.queryForObject(
+                    "select count(*) from dining_table where restaurant_id is null", Integer.class);
+            if (unassigned != null && unassigned > 0) {
+                jdbcTemplate.update("insert into restaurant (name) values (?) on conflict (name) do nothing",
+                        DEFAULT_RESTAURANT_NAME);
+                Long restaurantId = jdbcTemplate.queryForObject(
+                        "select id from restaurant where name = ?", Long.class, DEFAULT_RESTAURANT_NAME);
+                jdbcTemplate.update("update dining_table set restaurant_id = ? where restaurant_id is null", restaurantId);
+                log.info("Assigned {} existing tables to restaurant '{}'", unassigned, DEFAULT_RESTAURANT_NAME);
+            }
+            jdbcTemplate.update("""
+                update reservation r
+                set restaurant_id = t.restaurant_id
+                from dining_table t
+                where r.dining_table_id = t.id
+                  and r.restaurant_id is null
+            """);
+            jdbcTemplate.execute("alter table dining_table alter column restaurant_id set not null");
+            jdbcTemplate.execute("alter table reservation alter column restaurant_id set not null");
+
+            // Table codes used to be unique across all tables; they are now unique per restaurant.
+            List<String> legacy = jdbcTemplate.queryForList("""
+                select c.conname
+                from pg_constraint c
+                join pg_attribute a on a.attrelid = c.conrelid and a.attnum = c.conkey[1]
+                where c.conrelid = 'dining_table'::regclass
+                  and c.contype = 'u'
+                  and cardinality(c.conkey) = 1
+                  and a.attname = 'code'
+            """, String.class);
+            for (String name : legacy) {
+                jdbcTemplate.execute("alter table dining_table drop constraint " + name);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not assign existing rows to restaurants: {}", e.getMostSpecificCause().getMessage());
+        }
+    }
+
+    private void alignReservationSequence() {
+        try {
+            jdbcTemplate.execute("""
+                select setval('reservation_seq', greatest(
+                    (select last_value from reservation_seq),
+                    (select coalesce(max(id), 0) + 50 from reservation)))
+            """);
+        } catch (DataAccessException e) {
+            log.warn("Could not align reservation_seq with existing ids: {}", e.getMostSpecificCause().getMessage());
+        }
+    }
+
+    private void createNoOverlapConstraint() {
+        try {
+            jdbcTemplate.execute("create extension if not exists btree_gist");
+
+            Integer existing = jdbcTemplate.queryForObject(
+                    "select count(*) from pg_constraint where conname = ?", Integer.class, NO_OVERLAP_CONSTRAINT);
+            if (existing != null && existing > 0) {
+                return;
+            }
+
+            jdbcTemplate.execute("""
+                alter table reservation
+                    add constraint %s
+                    exclude using gist (
+                        dining_table_id with =,
+                        tsrange(start_time, end_time) with &&
+                    )
+            """.formatted(NO_OVERLAP_CONSTRAINT));
+        } catch (DataAccessException e) {
+            log.warn("Could not create constraint {}; overlap protection relies on the service check only: {}",
+                    NO_OVERLAP_CONSTRAINT, e.getMostSpecificCause().getMessage());
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.arturkytt.restaurantreservationsystem.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled methods for the whole application:
+ * - ReservationPartitionManager.maintain (partition maintenance, app.partitions.cron)
+ * - IdempotencyStore.deleteExpired (expired idempotency keys, app.idempotency.cleanup-cron)
+ * - HoldService.expireHolds (advances the hold timing wheel every 250 ms)
+ * - ReservationIndex.evictPast (drops past reservations from memory, app.index.evict-cron)
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,60 @@
+package com.arturkytt.restaurantreservationsystem.config;
+
+import com.arturkytt.restaurantreservationsystem.domain.Zone;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Settings of the startup data generator (DataSeeder), bound from app.seed.*.
+ *
+ * - enabled: seed an empty database on startup
+ * - restaurants: number of restaurants; each gets its own floor plan and reservations
+ * - tables: number of generated tables per restaurant; if not set, the 10-table demo floor plan is used
+ * - zoneMix: relative weight of each zone for generated tables
+ * - startDate: first day with reservations; defaults to today
+ * - days: number of days with reservations
+ * - reservationsPerTablePerDay: each table gets 0..N reservations per day
+ * - seed: seed of the random generator; the same settings always produce the same data
+ * - batchSize: rows per chunk sent to the database when copying reservations
+ */
+@ConfigurationProperties(prefix = "app.seed")
+public record SeedProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("1") int restaurants,
+        Integer tables,
+        Map<Zone, Integer> zoneMix,
+        LocalDate startDate,
+        @DefaultValue("7") int days,
+        @DefaultValue("2") int reservationsPerTablePerDay,
+        @DefaultValue("42") long seed,
+        @DefaultValue("5000") int batchSize
+) {
+    public SeedProperties {
+        if (restaurants < 1) {
+            throw new IllegalArgumentException("app.seed.restaurants must be at least 1");
+        }
+        if (tables != null && tables < 1) {
+            throw new IllegalArgumentException("app.seed.tables must be at least 1");
+        }
+        if (days < 0) {
+            throw new IllegalArgumentException("app.seed.days must not be negative");
+        }
+        if (reservationsPerTablePerDay < 0) {
+            throw new IllegalArgumentException("app.seed.reservations-per-table-per-day must not be negative");
+        }
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("app.seed.batch-size must be at least 1");
+        }
+        if (zoneMix == null || zoneMix.isEmpty()) {
+            zoneMix = new EnumMap<>(Map.of(Zone.MAIN_HALL, 5, Zone.TERRACE, 3, Zone.PRIVATE_ROOM, 2));
+        }
+        if (zoneMix.values().stream().anyMatch(w -> w == null || w < 0)
+                || zoneMix.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("app.seed.zone-mix weights must be non-negative with a positive sum");
+        }
+    }
+}
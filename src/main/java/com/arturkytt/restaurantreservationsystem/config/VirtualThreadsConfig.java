@@ -0,0 +1,63 @@
+package com.arturkytt.restaurantreservationsystem.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Settings applied when request handling runs on virtual threads (spring.threads.virtual.enabled=true,
+ * see the "virtual" profile).
+ *
+ * With platform threads the Tomcat worker pool (200 threads) limits how many requests reach the
+ * connection pool at once. With virtual threads there is no such limit, so the DataSource is wrapped
+ * in a ConnectionLimitingDataSource:
+ * - app.datasource.max-connections: concurrent connections; defaults to the Hikari pool size (10)
+ * - app.datasource.acquire-timeout: how long a request waits for a permit; defaults to 2 seconds
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadsConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadsConfig.class);
+
+    private static final int DEFAULT_POOL_SIZE = 10;
+    private static final Duration DEFAULT_ACQUIRE_TIMEOUT = Duration.ofSeconds(2);
+
+    /**
+     * Wraps the application DataSource in a ConnectionLimitingDataSource.
+     *
+     * Static, because bean post processors are created before regular beans.
+     *
+     * @param environment source of the app.datasource.* settings
+     * @return post processor wrapping the DataSource bean
+     */
+    @Bean
+    static BeanPostProcessor connectionLimitingDataSourcePostProcessor(Environment environment) {
+        Binder binder = Binder.get(environment);
+        int poolSize = binder.bind("spring.datasource.hikari.maximum-pool-size", Integer.class)
+                .orElse(DEFAULT_POOL_SIZE);
+        int maxConnections = binder.bind("app.datasource.max-connections", Integer.class).orElse(poolSize);
+        Duration acquireTimeout = binder.bind("app.datasource.acquire-timeout", Duration.class)
+                .orElse(DEFAULT_ACQUIRE_TIMEOUT);
+
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ConnectionLimitingDataSource)) {
+                    log.info("Limiting DataSource '{}' to {} concurrent connections (acquire timeout {} ms)",
+                            beanName, maxConnections, acquireTimeout.toMillis());
+                    return new ConnectionLimitingDataSource(dataSource, maxConnections, acquireTimeout);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -1,10 +1,16 @@
 package com.arturkytt.restaurantreservationsystem.controller;
 
 import com.arturkytt.restaurantreservationsystem.domain.Zone;
+import com.arturkytt.restaurantreservationsystem.dto.AvailabilityGridDto;
 import com.arturkytt.restaurantreservationsystem.dto.TableAvailabilityDto;
 import com.arturkytt.restaurantreservationsystem.service.AvailabilityService;
+import com.arturkytt.restaurantreservationsystem.service.AvailabilityStreamService;
+import com.arturkytt.restaurantreservationsystem.service.EntityTags;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
@@ -13,35 +19,94 @@ import java.util.List;
 /**
  * REST controller providing table availability endpoints.
  *
- * Exposes an endpoint for retrieving availability and suitability
- * information for all tables for a specific date and time.
+ * Exposes endpoints for retrieving availability and suitability
+ * information for all tables of a restaurant for a specific date and time,
+ * and the occupancy of all tables across a range of time slots.
+ * Changes are pushed to clients through a Server-Sent Events stream.
+ * Availability and grid responses carry an ETag (see EntityTags); a matching
+ * If-None-Match is answered with 304 Not Modified without computing the result.
  */
 @RestController
 @RequestMapping("/api")
 public class AvailabilityController {
 
     private final AvailabilityService availabilityService;
+    private final AvailabilityStreamService availabilityStreamService;
+    private final EntityTags entityTags;
 
-    public AvailabilityController(AvailabilityService availabilityService) {
+    public AvailabilityController(AvailabilityService availabilityService,
+                                  AvailabilityStreamService availabilityStreamService,
+                                  EntityTags entityTags) {
         this.availabilityService = availabilityService;
+        this.availabilityStreamService = availabilityStreamService;
+        this.entityTags = entityTags;
     }
 
     /**
-     * Returns availability information for all tables for the given time slot.
+     * Returns availability information for all tables of the restaurant for the given time slot.
      *
+     * @param restaurantId restaurant id
      * @param date reservation date
      * @param time reservation start time
      * @param partySize number of guests
      * @param zone optional zone filter; if not provided, all zones are included
-     * @return list of table availability results
+     * @param request current request, used for the conditional GET
+     * @return list of table availability results, or null (304 Not Modified) if the client's copy is current
      */
     @GetMapping("/availability")
     public List<TableAvailabilityDto> availability(
+            @RequestParam Long restaurantId,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
             @RequestParam @DateTimeFormat(pattern = "HH:mm") LocalTime time,
             @RequestParam int partySize,
-            @RequestParam(required = false) Zone zone
+            @RequestParam(required = false) Zone zone,
+            WebRequest request
     ) {
-        return availabilityService.getAvailability(date, time, partySize, zone);
+        if (request.checkNotModified(entityTags.forDate(restaurantId, date))) {
+            return null;
+        }
+        return availabilityService.getAvailability(restaurantId, date, time, partySize, zone);
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns the occupancy of every table for every slot of a time range in one response.
+     *
+     * @param restaurantId restaurant id
+     * @param date grid date
+     * @param from first slot start
+     * @param to end of the range (exclusive)
+     * @param step slot length in minutes (defaults to 15)
+     * @param request current request, used for the conditional GET
+     * @return occupancy grid with run-length encoded rows per table, or null (304 Not Modified)
+     *         if the client's copy is current
+     */
+    @GetMapping("/availability/grid")
+    public AvailabilityGridDto grid(
+            @RequestParam Long restaurantId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam @DateTimeFormat(pattern = "HH:mm") LocalTime from,
+            @RequestParam @DateTimeFormat(pattern = "HH:mm") LocalTime to,
+            @RequestParam(defaultValue = "15") int step,
+            WebRequest request
+    ) {
+        if (request.checkNotModified(entityTags.forDate(restaurantId, date))) {
+            return null;
+        }
+        return availabilityService.getGrid(restaurantId, date, from, to, step);
+    }
+
+    /**
+     * Opens a Server-Sent Events stream of table status changes of the restaurant affecting the given date.
+     *
+     * Each committed reservation is sent as a "reservation" event with an AvailabilityDeltaDto payload.
+     *
+     * @param restaurantId restaurant id
+     * @param date date displayed by the client
+     * @return event stream
+     */
+    @GetMapping(value = "/availability/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestParam Long restaurantId,
+                             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return availabilityStreamService.subscribe(restaurantId, date);
+    }
+}
@@ -0,0 +1,65 @@
+package com.arturkytt.restaurantreservationsystem.controller;
+
+import com.arturkytt.restaurantreservationsystem.domain.Zone;
+import com.arturkytt.restaurantreservationsystem.dto.FloorDto;
+import com.arturkytt.restaurantreservationsystem.service.EntityTags;
+import com.arturkytt.restaurantreservationsystem.service.FloorService;
+import com.arturkytt.restaurantreservationsystem.service.RecommendationService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * REST controller providing the combined floor view.
+ *
+ * Returns table geometry, occupancy and the recommendation for one time slot in a single
+ * response, so the floor plan view needs one round trip instead of three.
+ * Responses carry an ETag (see EntityTags); a matching If-None-Match is answered with
+ * 304 Not Modified.
+ */
+@RestController
+@RequestMapping("/api")
+public class FloorController {
+
+    private final FloorService floorService;
+    private final EntityTags entityTags;
+
+    public FloorController(FloorService floorService, EntityTags entityTags) {
+        this.floorService = floorService;
+        this.entityTags = entityTags;
+    }
+
+    /**
+     * Returns tables with occupancy and the recommendation for the given time slot.
+     *
+     * @param restaurantId restaurant id
+     * @param date reservation date
+     * @param time reservation start time
+     * @param partySize number of guests
+     * @param zone optional zone restriction of the recommendation
+     * @param features optional comma-separated list of requested features
+     * @param limit maximum number of top candidates
+     * @param request current request, used for the conditional GET
+     * @return floor view, or null (304 Not Modified) if the client's copy is current
+     */
+    @GetMapping("/floor")
+    public FloorDto floor(
+            @RequestParam Long restaurantId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam @DateTimeFormat(pattern = "HH:mm") LocalTime time,
+            @RequestParam int partySize,
+            @RequestParam(required = false) Zone zone,
+            @RequestParam(required = false) String features,
+            @RequestParam(defaultValue = "" + RecommendationService.DEFAULT_LIMIT) int limit,
+            WebRequest request
+    ) {
+        if (request.checkNotModified(entityTags.forDate(restaurantId, date))) {
+            return null;
+        }
+        return floorService.getFloor(restaurantId, date, time, partySize, zone,
+                RecommendationController.parseFeatures(features), limit);
+    }
+}
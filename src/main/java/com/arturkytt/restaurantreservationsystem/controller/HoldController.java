@@ -0,0 +1,67 @@
+package com.arturkytt.restaurantreservationsystem.controller;
+
+import com.arturkytt.restaurantreservationsystem.dto.CreateHoldRequestDto;
+import com.arturkytt.restaurantreservationsystem.dto.HoldDto;
+import com.arturkytt.restaurantreservationsystem.service.HoldService;
+import com.arturkytt.restaurantreservationsystem.service.ReservationService;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST controller for temporary table holds.
+ *
+ * A client places a hold while the user confirms a booking, then either confirms
+ * the hold (creating the reservation) or releases it. Unconfirmed holds expire
+ * on their own.
+ */
+@RestController
+@RequestMapping("/api/holds")
+public class HoldController {
+
+    private final HoldService holdService;
+    private final ReservationService reservationService;
+
+    public HoldController(HoldService holdService, ReservationService reservationService) {
+        this.holdService = holdService;
+        this.reservationService = reservationService;
+    }
+
+    /**
+     * Places a hold on a table for a slot.
+     *
+     * @param restaurantId restaurant the table belongs to
+     * @param request table, slot, party size and optional hold lifetime in seconds
+     * @return the new hold
+     */
+    @PostMapping
+    public HoldDto create(@RequestParam Long restaurantId, @RequestBody CreateHoldRequestDto request) {
+        return holdService.createHold(restaurantId, request);
+    }
+
+    /**
+     * Converts the hold into a reservation.
+     *
+     * @param restaurantId restaurant the hold belongs to
+     * @param id hold id
+     */
+    @PostMapping("/{id}/confirm")
+    public void confirm(@RequestParam Long restaurantId, @PathVariable String id) {
+        reservationService.confirmHold(restaurantId, id);
+    }
+
+    /**
+     * Releases the hold before it expires.
+     *
+     * @param restaurantId restaurant the hold belongs to
+     * @param id hold id
+     */
+    @DeleteMapping("/{id}")
+    public void release(@RequestParam Long restaurantId, @PathVariable String id) {
+        holdService.release(holdService.get(restaurantId, id));
+    }
+}
@@ -2,52 +2,129 @@ package com.arturkytt.restaurantreservationsystem.controller;
 
 import com.arturkytt.restaurantreservationsystem.domain.Feature;
 import com.arturkytt.restaurantreservationsystem.domain.Zone;
+import com.arturkytt.restaurantreservationsystem.dto.NextAvailableSlotDto;
 import com.arturkytt.restaurantreservationsystem.dto.RecommendationResponseDto;
+import com.arturkytt.restaurantreservationsystem.service.EntityTags;
 import com.arturkytt.restaurantreservationsystem.service.RecommendationService;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.Arrays;
 import java.util.EnumSet;
+import java.util.List;
 import java.util.Set;
 
 /**
  * REST controller providing table recommendation endpoints.
  *
  * Exposes an endpoint that returns the best available table
- * based on time, party size and optional preferences.
+ * based on time, party size and optional preferences, and endpoints
+ * that search forward for the earliest free start times or the best times
+ * across a range of dates.
+ * Single-date recommendations carry an ETag (see EntityTags) and are answered with
+ * 304 Not Modified when the client's copy is current.
  */
 @RestController
 @RequestMapping("/api")
 public class RecommendationController {
 
     private final RecommendationService recommendationService;
+    private final EntityTags entityTags;
 
-    public RecommendationController(RecommendationService recommendationService) {
+    public RecommendationController(RecommendationService recommendationService, EntityTags entityTags) {
         this.recommendationService = recommendationService;
+        this.entityTags = entityTags;
     }
+
     /**
      * Returns a recommendation result for the given criteria.
      *
+     * @param restaurantId restaurant id
      * @param date reservation date
      * @param time reservation start time
      * @param partySize number of guests
      * @param zone optional zone restriction
      * @param features optional comma-separated list of requested features
-     * @return recommendation response containing the best table and top candidates
+     * @param limit maximum number of top candidates
+     * @param request current request, used for the conditional GET
+     * @return recommendation response containing the best table and top candidates,
+     *         or null (304 Not Modified) if the client's copy is current
      */
     @GetMapping("/recommendation")
     public RecommendationResponseDto recommend(
+            @RequestParam Long restaurantId,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
             @RequestParam @DateTimeFormat(pattern = "HH:mm") LocalTime time,
             @RequestParam int partySize,
             @RequestParam(required = false) Zone zone,
-            @RequestParam(required = false) String features
+            @RequestParam(required = false) String features,
+            @RequestParam(defaultValue = "" + RecommendationService.DEFAULT_LIMIT) int limit,
+            WebRequest request
+    ) {
+        if (request.checkNotModified(entityTags.forDate(restaurantId, date))) {
+            return null;
+        }
+        Set<Feature> requested = parseFeatures(features);
+        return recommendationService.recommend(restaurantId, date, time, partySize, zone, requested, limit);
+    }
+    /**
+     * Returns the earliest start times at or after the given date and time when a suitable table is free.
+     *
+     * @param restaurantId restaurant id
+     * @param date first date to search
+     * @param after optional earliest start time on the first date
+     * @param partySize number of guests
+     * @param zone optional zone restriction
+     * @param features optional comma-separated list of requested features
+     * @param count maximum number of start times
+     * @param days number of days to search
+     * @return free start times with the best table for each
+     */
+    @GetMapping("/recommendation/next-available")
+    public List<NextAvailableSlotDto> nextAvailable(
+            @RequestParam Long restaurantId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "HH:mm") LocalTime after,
+            @RequestParam int partySize,
+            @RequestParam(required = false) Zone zone,
+            @RequestParam(required = false) String features,
+            @RequestParam(defaultValue = "3") int count,
+            @RequestParam(defaultValue = "7") int days
+    ) {
+        Set<Feature> requested = parseFeatures(features);
+        return recommendationService.nextAvailable(restaurantId, date, after, partySize, zone, requested, count, days);
+    }
+    /**
+     * Returns the best start times for a range of dates and a daily time window.
+     *
+     * @param restaurantId restaurant id
+     * @param from first date (inclusive)
+     * @param to last date (inclusive)
+     * @param windowStart earliest start time per day
+     * @param windowEnd latest start time per day
+     * @param partySize number of guests
+     * @param zone optional zone restriction
+     * @param features optional comma-separated list of requested features
+     * @param limit maximum number of options
+     * @return options with the best table for each, best score first
+     */
+    @GetMapping("/recommendation/flexible")
+    public List<NextAvailableSlotDto> flexible(
+            @RequestParam Long restaurantId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam @DateTimeFormat(pattern = "HH:mm") LocalTime windowStart,
+            @RequestParam @DateTimeFormat(pattern = "HH:mm") LocalTime windowEnd,
+            @RequestParam int partySize,
+            @RequestParam(required = false) Zone zone,
+            @RequestParam(required = false) String features,
+            @RequestParam(defaultValue = "10") int limit
     ) {
         Set<Feature> requested = parseFeatures(features);
-        return recommendationService.recommend(date, time, partySize, zone, requested);
+        return recommendationService.flexibleSearch(restaurantId, from, to, windowStart, windowEnd, partySize, zone, requested, limit);
     }
     /**
      * Parses a comma-separated feature list into a set of Feature enums.
@@ -55,7 +132,7 @@ public class RecommendationController {
      * @param features comma-separated feature names
      * @return parsed feature set, or an empty set if none provided
      */
-    private Set<Feature> parseFeatures(String features) {
+    static Set<Feature> parseFeatures(String features) {
         if (features == null || features.isBlank()) {
             return EnumSet.noneOf(Feature.class);
         }
@@ -1,33 +1,74 @@
 package com.arturkytt.restaurantreservationsystem.controller;
 
+import com.arturkytt.restaurantreservationsystem.dto.BatchReservationResultDto;
 import com.arturkytt.restaurantreservationsystem.dto.CreateReservationRequestDto;
+import com.arturkytt.restaurantreservationsystem.dto.TableContentionDto;
+import com.arturkytt.restaurantreservationsystem.service.BookingLocks;
 import com.arturkytt.restaurantreservationsystem.service.ReservationService;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
 /**
  * REST controller responsible for creating reservations.
  *
- * Provides an endpoint for submitting new reservation requests.
+ * Provides endpoints for submitting single and batch reservation requests
+ * and an endpoint exposing booking lock contention per table.
+ * Single reservations accept an optional Idempotency-Key header, so a client can safely
+ * retry a request whose response it did not receive.
  */
 @RestController
 @RequestMapping("/api/reservations")
 public class ReservationController {
 
     private final ReservationService reservationService;
+    private final BookingLocks bookingLocks;
 
-    public ReservationController(ReservationService reservationService) {
+    public ReservationController(ReservationService reservationService, BookingLocks bookingLocks) {
         this.reservationService = reservationService;
+        this.bookingLocks = bookingLocks;
     }
 
     /**
      * Creates a new reservation.
      *
+     * @param restaurantId restaurant the table belongs to
      * @param request reservation request payload
+     * @param idempotencyKey optional client-generated key; retries with the same key and payload
+     *                       return the original result instead of booking again
      */
     @PostMapping
-    public void create(@RequestBody CreateReservationRequestDto request) {
-        reservationService.createReservation(request);
+    public void create(@RequestParam Long restaurantId, @RequestBody CreateReservationRequestDto request,
+                       @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey) {
+        reservationService.createReservation(restaurantId, request, idempotencyKey);
+    }
+
+    /**
+     * Creates several reservations of one restaurant at once.
+     *
+     * @param restaurantId restaurant all tables of the batch belong to
+     * @param requests reservation request payloads
+     * @return one result per request item, in request order
+     */
+    @PostMapping("/batch")
+    public List<BatchReservationResultDto> createBatch(@RequestParam Long restaurantId,
+                                                       @RequestBody List<CreateReservationRequestDto> requests) {
+        return reservationService.createReservations(restaurantId, requests);
+    }
+
+    /**
+     * Returns booking lock contention counters per table of the restaurant, most contended first.
+     *
+     * @param restaurantId restaurant id
+     * @return contention statistics
+     */
+    @GetMapping("/contention")
+    public List<TableContentionDto> contention(@RequestParam Long restaurantId) {
+        return bookingLocks.contention(restaurantId);
     }
 }
\ No newline at end of file
@@ -0,0 +1,34 @@
+package com.arturkytt.restaurantreservationsystem.controller;
+
+import com.arturkytt.restaurantreservationsystem.dto.RestaurantDto;
+import com.arturkytt.restaurantreservationsystem.repository.RestaurantRepository;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+/**
+ * REST controller listing the restaurants served by this deployment.
+ *
+ * Clients pick a restaurant here and pass its id as restaurantId to all other endpoints.
+ */
+@RestController
+@RequestMapping("/api")
+public class RestaurantController {
+
+    private final RestaurantRepository restaurantRepository;
+
+    public RestaurantController(RestaurantRepository restaurantRepository) {
+        this.restaurantRepository = restaurantRepository;
+    }
+
+    /**
+     * Returns all restaurants sorted by name.
+     *
+     * @return list of restaurants
+     */
+    @GetMapping("/restaurants")
+    public List<RestaurantDto> getRestaurants() {
+        return restaurantRepository.findAllByOrderByNameAsc();
+    }
+}
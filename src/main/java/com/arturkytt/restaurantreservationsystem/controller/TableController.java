@@ -1,43 +1,43 @@
 package com.arturkytt.restaurantreservationsystem.controller;
 
 import com.arturkytt.restaurantreservationsystem.dto.TableDto;
-import com.arturkytt.restaurantreservationsystem.repository.DiningTableRepository;
+import com.arturkytt.restaurantreservationsystem.service.EntityTags;
+import com.arturkytt.restaurantreservationsystem.service.FloorPlanCache;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.util.Comparator;
 import java.util.List;
 /**
  * REST controller providing endpoints for retrieving table information.
  *
  * Returns static table data without availability or scoring logic.
+ * Data is served from the cached floor plan snapshot. Responses carry an ETag derived from
+ * the snapshot version; a matching If-None-Match is answered with 304 Not Modified.
  */
 @RestController
 @RequestMapping("/api")
 public class TableController {
 
-    private final DiningTableRepository tableRepository;
+    private final FloorPlanCache floorPlanCache;
+    private final EntityTags entityTags;
 
-    public TableController(DiningTableRepository tableRepository) {
-        this.tableRepository = tableRepository;
+    public TableController(FloorPlanCache floorPlanCache, EntityTags entityTags) {
+        this.floorPlanCache = floorPlanCache;
+        this.entityTags = entityTags;
     }
+
     /**
-     * Returns all dining tables sorted by table code.
+     * Returns all dining tables of the restaurant sorted by table code.
      *
-     * @return list of tables
+     * @param restaurantId restaurant id
+     * @param request current request, used for the conditional GET
+     * @return list of tables, or null (304 Not Modified) if the client's copy is current
      */
     @GetMapping("/tables")
-    public List<TableDto> getTables() {
-        return tableRepository.findAll().stream()
-                .map(t -> new TableDto(
-                        t.getId(),
-                        t.getCode(),
-                        t.getCapacity(),
-                        t.getZone(),
-                        t.getX(),
-                        t.getY(),
-                        t.getFeatures()
-                ))
-                .sorted(Comparator.comparing(TableDto::code))
-                .toList();
+    public List<TableDto> getTables(@RequestParam Long restaurantId, WebRequest request) {
+        if (request.checkNotModified(entityTags.floorPlan(restaurantId))) {
+            return null;
+        }
+        return floorPlanCache.current(restaurantId).tableDtos();
     }
 }
\ No newline at end of file
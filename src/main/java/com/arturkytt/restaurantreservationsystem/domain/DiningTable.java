@@ -1,5 +1,6 @@
 package com.arturkytt.restaurantreservationsystem.domain;
 
+import com.arturkytt.restaurantreservationsystem.service.FloorPlanChangeListener;
 import jakarta.persistence.*;
 import java.util.HashSet;
 import java.util.Set;
@@ -11,23 +12,35 @@ import java.util.Set;
  * of a table used in reservations, availability checks and recommendation logic.
  *
  * Business meaning of fields:
- * - code is a human-readable unique identifier (for example "T1").
+ * - restaurant is the site the table belongs to.
+ * - code is a human-readable identifier, unique within the restaurant (for example "T1").
  * - capacity defines the maximum number of guests the table can accommodate.
  * - zone specifies the physical area of the restaurant where the table is located.
  * - x and y represent table coordinates used for layout visualization or positioning logic.
  * - features define special characteristics that may be used in filtering or recommendation scoring.
  *
  * This entity does not contain business logic. Validation and rules are handled in the service layer.
+ * Writes are reported to FloorPlanChangeListener so the cached floor plan snapshot is replaced.
  */
 @Entity
-@Table(name = "dining_table")
+@Table(
+        name = "dining_table",
+        uniqueConstraints = @UniqueConstraint(name = "uk_dining_table_restaurant_code", columnNames = {"restaurant_id", "code"})
+)
+@EntityListeners(FloorPlanChangeListener.class)
 public class DiningTable {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(nullable = false, unique = true)
+    // Declared nullable for ddl-auto so the column can be added to existing tables;
+    // ReservationSchemaInitializer assigns existing rows and then makes it NOT NULL.
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "restaurant_id")
+    private Restaurant restaurant;
+
+    @Column(nullable = false)
     private String code;
 
     @Column(nullable = false)
@@ -62,6 +75,14 @@ public class DiningTable {
         this.id = id;
     }
 
+    public Restaurant getRestaurant() {
+        return restaurant;
+    }
+
+    public void setRestaurant(Restaurant restaurant) {
+        this.restaurant = restaurant;
+    }
+
     public String getCode() {
         return code;
     }
@@ -0,0 +1,109 @@
+package com.arturkytt.restaurantreservationsystem.domain;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Entity recording which reservation was created for a client-supplied Idempotency-Key.
+ *
+ * The key is the primary key, so the database rejects a second reservation created under the
+ * same key even when two application instances handle the retries. It lives in its own table
+ * because the reservation table is partitioned by start_time, where a unique constraint would
+ * have to include start_time and could not guarantee uniqueness of the key alone.
+ *
+ * Business meaning of fields:
+ * - restaurantId, tableId, startTime and partySize describe the original request; a retry
+ *   with the same key must describe the same reservation
+ * - reservationId is the reservation created for the request (no foreign key, because
+ *   the partitioned reservation table has a composite primary key)
+ * - createdAt is used to delete keys older than the idempotency TTL
+ */
+@Entity
+@Table(name = "reservation_idempotency_key")
+public class IdempotencyKey {
+
+    /**
+     * Maximum accepted length of an Idempotency-Key header value.
+     */
+    public static final int MAX_LENGTH = 255;
+
+    @Id
+    @Column(name = "idempotency_key", length = IdempotencyKey.MAX_LENGTH)
+    private String key;
+
+    @Column(nullable = false)
+    private Long reservationId;
+
+    @Column(nullable = false)
+    private Long restaurantId;
+
+    @Column(name = "dining_table_id", nullable = false)
+    private Long tableId;
+
+    @Column(nullable = false)
+    private LocalDateTime startTime;
+
+    @Column(nullable = false)
+    private int partySize;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    public IdempotencyKey() {}
+
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    public Long getReservationId() {
+        return reservationId;
+    }
+
+    public void setReservationId(Long reservationId) {
+        this.reservationId = reservationId;
+    }
+
+    public Long getRestaurantId() {
+        return restaurantId;
+    }
+
+    public void setRestaurantId(Long restaurantId) {
+        this.restaurantId = restaurantId;
+    }
+
+    public Long getTableId() {
+        return tableId;
+    }
+
+    public void setTableId(Long tableId) {
+        this.tableId = tableId;
+    }
+
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(LocalDateTime startTime) {
+        this.startTime = startTime;
+    }
+
+    public int getPartySize() {
+        return partySize;
+    }
+
+    public void setPartySize(int partySize) {
+        this.partySize = partySize;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -14,16 +14,39 @@ import java.time.LocalDateTime;
  * - Party size must not exceed the table capacity.
  * - Start time must be before end time.
  *
+ * The restaurant is stored alongside the table, so reservations of one site can be queried
+ * through the (restaurant_id, start_time) index without joining dining_table.
+ *
  * This entity serves as a persistence model and does not contain validation logic.
+ * Non-overlap per table is additionally enforced by the database through the
+ * reservation_no_overlap exclusion constraint (see ReservationSchemaInitializer).
  */
 @Entity
-@Table(name = "reservation")
+@Table(
+        name = "reservation",
+        indexes = {
+                @Index(name = "idx_reservation_table_start", columnList = "dining_table_id, start_time"),
+                @Index(name = "idx_reservation_restaurant_start", columnList = "restaurant_id, start_time")
+        }
+)
 public class Reservation {
 
+    /**
+     * Increment of reservation_seq: each nextval reserves the ids (value - ID_ALLOCATION_SIZE, value].
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    // Sequence with a pooled allocator (instead of IDENTITY) so Hibernate can batch inserts.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reservation_seq")
+    @SequenceGenerator(name = "reservation_seq", sequenceName = "reservation_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
+    // Made NOT NULL by ReservationSchemaInitializer (see DiningTable.restaurant).
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "restaurant_id")
+    private Restaurant restaurant;
+
     @ManyToOne(optional = false, fetch = FetchType.LAZY)
     @JoinColumn(name = "dining_table_id", nullable = false)
     private DiningTable table;
@@ -47,6 +70,14 @@ public class Reservation {
         this.id = id;
     }
 
+    public Restaurant getRestaurant() {
+        return restaurant;
+    }
+
+    public void setRestaurant(Restaurant restaurant) {
+        this.restaurant = restaurant;
+    }
+
     public DiningTable getTable() {
         return table;
     }
@@ -0,0 +1,42 @@
+package com.arturkytt.restaurantreservationsystem.domain;
+
+import jakarta.persistence.*;
+
+/**
+ * Entity representing a restaurant (site) served by this deployment.
+ *
+ * Every dining table and reservation belongs to exactly one restaurant. All API endpoints
+ * are scoped by restaurant id, and in-memory read structures are kept per restaurant.
+ *
+ * Business meaning of fields:
+ * - name is a unique, human-readable name shown in the UI.
+ */
+@Entity
+@Table(name = "restaurant")
+public class Restaurant {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true)
+    private String name;
+
+    public Restaurant() {}
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+}
@@ -0,0 +1,15 @@
+package com.arturkytt.restaurantreservationsystem.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Incremental table status change pushed to availability stream subscribers.
+ *
+ * The table is occupied during [startTime, endTime). Clients apply the delta to the
+ * availability they already show instead of fetching it again.
+ */
+public record AvailabilityDeltaDto(
+        Long tableId,
+        LocalDateTime startTime,
+        LocalDateTime endTime
+) {}
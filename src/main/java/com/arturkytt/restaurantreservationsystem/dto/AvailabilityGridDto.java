@@ -0,0 +1,21 @@
+package com.arturkytt.restaurantreservationsystem.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * DTO describing the occupancy of every table for every time slot of a range on one date.
+ *
+ * Slot i covers [from + i * step, from + (i + 1) * step) minutes; slots is the number of slots.
+ * A slot is occupied when any reservation of the table intersects it.
+ * Each table row lists its occupied slots run-length encoded, see TableGridRowDto.
+ */
+public record AvailabilityGridDto(
+        LocalDate date,
+        LocalTime from,
+        LocalTime to,
+        int step,
+        int slots,
+        List<TableGridRowDto> tables
+) {}
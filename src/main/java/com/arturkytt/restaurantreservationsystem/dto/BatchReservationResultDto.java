@@ -0,0 +1,22 @@
+package com.arturkytt.restaurantreservationsystem.dto;
+
+/**
+ * Result of a single item of a batch reservation request.
+ *
+ * index is the position of the item in the request list.
+ * status tells whether the reservation was created or why it was rejected.
+ * reservationId is set only for created reservations.
+ * message describes the rejection reason and is null for created reservations.
+ */
+public record BatchReservationResultDto(
+        int index,
+        Status status,
+        Long reservationId,
+        String message
+) {
+    public enum Status {
+        CREATED,
+        INVALID,
+        CONFLICT
+    }
+}
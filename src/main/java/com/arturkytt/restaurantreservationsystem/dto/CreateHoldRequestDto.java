@@ -0,0 +1,20 @@
+package com.arturkytt.restaurantreservationsystem.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Request DTO used when placing a temporary hold on a table.
+ *
+ * tableId, date, time and partySize describe the slot like CreateReservationRequestDto.
+ * seconds is the lifetime of the hold; if null, the default hold duration is used.
+ *
+ * The held slot has the default reservation duration.
+ */
+public record CreateHoldRequestDto(
+        Long tableId,
+        LocalDate date,
+        LocalTime time,
+        int partySize,
+        Integer seconds
+) {}
@@ -0,0 +1,15 @@
+package com.arturkytt.restaurantreservationsystem.dto;
+
+import java.util.List;
+
+/**
+ * Response DTO of the floor endpoint: everything the floor plan view needs for one time slot.
+ *
+ * tables contains geometry and occupancy of every table, sorted by table code.
+ * recommendation is the recommendation for the same slot, computed from the same
+ * floor plan and occupancy, so both parts are always consistent with each other.
+ */
+public record FloorDto(
+        List<TableAvailabilityDto> tables,
+        RecommendationResponseDto recommendation
+) {}
@@ -0,0 +1,19 @@
+package com.arturkytt.restaurantreservationsystem.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO describing an active table hold.
+ *
+ * id is used to confirm the hold as a reservation or to release it.
+ * startTime and endTime are the held slot; expiresAt is when the hold is released
+ * automatically unless it was confirmed before.
+ */
+public record HoldDto(
+        String id,
+        Long tableId,
+        LocalDateTime startTime,
+        LocalDateTime endTime,
+        int partySize,
+        LocalDateTime expiresAt
+) {}
@@ -0,0 +1,15 @@
+package com.arturkytt.restaurantreservationsystem.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * DTO representing one free start time found by the next-available search.
+ *
+ * table is the best scoring free table for the party at that time.
+ */
+public record NextAvailableSlotDto(
+        LocalDate date,
+        LocalTime time,
+        RecommendationCandidateDto table
+) {}
@@ -7,10 +7,13 @@ import java.util.List;
  *
  * recommended represents the best matching table based on scoring logic.
  * topCandidates contains a ranked list of the highest scoring tables.
+ * combinations is only filled when no single table fits the party; it lists sets of
+ * adjacent free tables that can be joined, best fit first.
  *
  * The scoring and ranking logic are implemented in the recommendation service.
  */
 public record RecommendationResponseDto(
         RecommendationCandidateDto recommended,
-        List<RecommendationCandidateDto> topCandidates
+        List<RecommendationCandidateDto> topCandidates,
+        List<TableCombinationDto> combinations
 ) {}
\ No newline at end of file
@@ -0,0 +1,11 @@
+package com.arturkytt.restaurantreservationsystem.dto;
+
+/**
+ * DTO representing a restaurant served by this deployment.
+ *
+ * The id is passed as restaurantId to all other endpoints.
+ */
+public record RestaurantDto(
+        Long id,
+        String name
+) {}
@@ -0,0 +1,19 @@
+package com.arturkytt.restaurantreservationsystem.dto;
+
+import com.arturkytt.restaurantreservationsystem.domain.Zone;
+
+import java.util.List;
+
+/**
+ * DTO representing a set of adjacent tables that together can seat a large party.
+ *
+ * tableIds and codes are listed in the same (code) order.
+ * unusedSeats is the combined capacity minus the party size; smaller is better.
+ */
+public record TableCombinationDto(
+        List<Long> tableIds,
+        List<String> codes,
+        Zone zone,
+        int capacity,
+        int unusedSeats
+) {}
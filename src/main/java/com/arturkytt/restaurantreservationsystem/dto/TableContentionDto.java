@@ -0,0 +1,17 @@
+package com.arturkytt.restaurantreservationsystem.dto;
+
+/**
+ * DTO with booking lock statistics for a single table since application start.
+ *
+ * acquisitions counts booking attempts that entered the table lock.
+ * contended counts attempts that had to wait because another booking held the lock.
+ * rejected counts attempts rejected by the in-memory conflict check before any database access.
+ * timedOut counts attempts that gave up waiting for the lock.
+ */
+public record TableContentionDto(
+        Long tableId,
+        long acquisitions,
+        long contended,
+        long rejected,
+        long timedOut
+) {}
@@ -0,0 +1,15 @@
+package com.arturkytt.restaurantreservationsystem.dto;
+
+import java.util.List;
+
+/**
+ * Occupancy of a single table within an AvailabilityGridDto.
+ *
+ * occupiedRuns contains [firstSlot, length] pairs of consecutive occupied slots in ascending order;
+ * slots not covered by a run are free. An empty list means the table is free for the whole range.
+ */
+public record TableGridRowDto(
+        Long id,
+        String code,
+        List<int[]> occupiedRuns
+) {}
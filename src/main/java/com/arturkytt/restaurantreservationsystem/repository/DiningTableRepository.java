@@ -2,6 +2,11 @@ package com.arturkytt.restaurantreservationsystem.repository;
 
 import com.arturkytt.restaurantreservationsystem.domain.DiningTable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
 
 /**
  * Repository interface for accessing and managing DiningTable entities.
@@ -13,4 +18,24 @@ import org.springframework.data.jpa.repository.JpaRepository;
  * in the service layer.
  */
 public interface DiningTableRepository extends JpaRepository<DiningTable, Long> {
-}
\ No newline at end of file
+
+    /**
+     * Returns the tables of the given restaurant as flat rows, one per table and feature.
+     *
+     * Used to build the cached floor plan. Reading projections instead of entities skips the
+     * persistence context, dirty-checking snapshots of the feature collections and the
+     * per-table feature queries; the read-only transaction also disables flushing.
+     *
+     * @param restaurantId restaurant id
+     * @return table rows, in no particular order
+     */
+    @Transactional(readOnly = true)
+    @Query("""
+        select new com.arturkytt.restaurantreservationsystem.repository.TableRow(
+            t.id, t.code, t.capacity, t.zone, t.x, t.y, f)
+        from DiningTable t
+        left join t.features f
+        where t.restaurant.id = :restaurantId
+    """)
+    List<TableRow> findTableRows(@Param("restaurantId") Long restaurantId);
+}
@@ -0,0 +1,69 @@
+package com.arturkytt.restaurantreservationsystem.repository;
+
+import com.arturkytt.restaurantreservationsystem.domain.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Repository interface for accessing and managing IdempotencyKey entities.
+ *
+ * Keys are written with a native insert instead of save: save merges entities with an
+ * assigned id, which would silently overwrite the row of a concurrent request with the
+ * same key instead of failing on the primary key. The insert only replaces a row whose
+ * key has expired but was not deleted yet.
+ */
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, String> {
+
+    /**
+     * Stores the key of a newly created reservation inside the current transaction, replacing
+     * a row of the same key created before expiredBefore.
+     *
+     * @param key Idempotency-Key header value
+     * @param reservationId created reservation
+     * @param restaurantId restaurant of the request
+     * @param tableId table of the request
+     * @param startTime start time of the request
+     * @param partySize party size of the request
+     * @param createdAt time the key was stored
+     * @param expiredBefore rows of the key created before this time are replaced
+     * @return 1 if the key was stored, 0 if an unexpired row of the key exists
+     */
+    @Modifying
+    @Query(value = """
+        insert into reservation_idempotency_key
+            (idempotency_key, reservation_id, restaurant_id, dining_table_id, start_time, party_size, created_at)
+        values (:key, :reservationId, :restaurantId, :tableId, :startTime, :partySize, :createdAt)
+        on conflict (idempotency_key) do update
+            set reservation_id = excluded.reservation_id,
+                restaurant_id = excluded.restaurant_id,
+                dining_table_id = excluded.dining_table_id,
+                start_time = excluded.start_time,
+                party_size = excluded.party_size,
+                created_at = excluded.created_at
+            where reservation_idempotency_key.created_at < :expiredBefore
+    """, nativeQuery = true)
+    int insert(@Param("key") String key,
+                @Param("reservationId") Long reservationId,
+                @Param("restaurantId") Long restaurantId,
+                @Param("tableId") Long tableId,
+                @Param("startTime") LocalDateTime startTime,
+                @Param("partySize") int partySize,
+                @Param("createdAt") LocalDateTime createdAt,
+                @Param("expiredBefore") LocalDateTime expiredBefore);
+
+    /**
+     * Deletes keys stored before the given time.
+     *
+     * @param createdBefore cutoff time
+     * @return number of deleted keys
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyKey k where k.createdAt < :createdBefore")
+    int deleteCreatedBefore(@Param("createdBefore") LocalDateTime createdBefore);
+}
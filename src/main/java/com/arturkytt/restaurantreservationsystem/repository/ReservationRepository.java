@@ -1,48 +1,146 @@
 package com.arturkytt.restaurantreservationsystem.repository;
 
+import com.arturkytt.restaurantreservationsystem.config.ReservationPolicy;
 import com.arturkytt.restaurantreservationsystem.domain.Reservation;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
  * Repository interface for accessing and managing Reservation entities.
  *
  * In addition to standard CRUD operations provided by Spring Data JPA,
- * this repository defines a custom query for detecting overlapping reservations.
+ * this repository defines custom queries for detecting overlapping reservations.
+ *
+ * Read queries return ReservationSlot projections or scalars instead of Reservation entities
+ * and run in read-only transactions, which switch Hibernate's flush mode to MANUAL: nothing is
+ * added to the persistence context, dirty-checked or flushed.
  *
  * Overlap logic is based on time interval intersection:
  * A reservation overlaps if its start time is before the requested end time
  * and its end time is after the requested start time.
  *
+ * Every reservation lasts ReservationPolicy.DEFAULT_DURATION, so a reservation ending after the
+ * requested start must also have started after (requested start - DEFAULT_DURATION). The queries
+ * state this lower bound on start_time explicitly: together with the upper bound it lets PostgreSQL
+ * skip all monthly partitions outside the interval (see ReservationPartitionManager). The
+ * methods without an earliestStart parameter derive the bound.
+ *
+ * Queries spanning several tables are scoped by restaurant, so they are answered from the
+ * (restaurant_id, start_time) index and never read reservations of other sites.
+ *
  * This repository does not enforce business rules itself.
  * It only provides the data required for validation in the service layer.
  */
 public interface ReservationRepository extends JpaRepository<Reservation, Long> {
 
     /**
-     * Finds all reservations that overlap with the given time interval.
+     * Returns the slots of all reservations starting after the given instant; used to load ReservationIndex.
+     *
+     * The lower bound lets PostgreSQL skip the monthly partitions of past months.
+     *
+     * @param earliestStart reservations starting at or before this instant are not returned
+     * @return one slot per reservation
+     */
+    @Transactional(readOnly = true)
+    @Query("""
+        select new com.arturkytt.restaurantreservationsystem.repository.ReservationSlot(
+            r.restaurant.id, r.table.id, r.startTime, r.endTime)
+        from Reservation r
+        where r.startTime > :earliestStart
+    """)
+    List<ReservationSlot> findSlotsStartingAfter(@Param("earliestStart") LocalDateTime earliestStart);
+
+    /**
+     * Finds the slots of all reservations of the given tables that overlap with the given time interval.
+     *
+     * Used by batch creation to validate a whole batch with a single query.
+     *
+     * @param restaurantId restaurant the tables belong to
+     * @param tableIds  tables to check
+     * @param startTime start of the requested interval (inclusive)
+     * @param endTime   end of the requested interval (exclusive)
+     * @return slots of the given tables intersecting the interval
+     */
+    default List<ReservationSlot> findOverlappingForTables(Long restaurantId, Collection<Long> tableIds,
+                                                       LocalDateTime startTime, LocalDateTime endTime) {
+        return findOverlappingForTables(restaurantId, tableIds, earliestStart(startTime), startTime, endTime);
+    }
+
+    /**
+     * Variant of findOverlappingForTables with an explicit start_time lower bound.
+     *
+     * @param restaurantId restaurant the tables belong to
+     * @param tableIds  tables to check
+     * @param earliestStart reservations starting at or before this instant are not returned
+     * @param startTime start of the requested interval (inclusive)
+     * @param endTime   end of the requested interval (exclusive)
+     * @return slots of the given tables intersecting the interval
+     */
+    @Transactional(readOnly = true)
+    @Query("""
+        select new com.arturkytt.restaurantreservationsystem.repository.ReservationSlot(
+            r.restaurant.id, r.table.id, r.startTime, r.endTime)
+        from Reservation r
+        where r.restaurant.id = :restaurantId
+          and r.table.id in :tableIds
+          and r.startTime > :earliestStart
+          and r.startTime < :endTime
+          and r.endTime   > :startTime
+    """)
+    List<ReservationSlot> findOverlappingForTables(
+            @Param("restaurantId") Long restaurantId,
+            @Param("tableIds") Collection<Long> tableIds,
+            @Param("earliestStart") LocalDateTime earliestStart,
+            @Param("startTime") LocalDateTime startTime,
+            @Param("endTime") LocalDateTime endTime
+    );
+
+    /**
+     * Checks whether the given table has a reservation overlapping the given time interval.
      *
-     * Overlap condition:
-     * existing.startTime < requestedEnd
-     * AND
-     * existing.endTime   > requestedStart
+     * Scoped to a single table, so it is answered from the (dining_table_id, start_time) index
+     * or the overlap exclusion constraint's GiST index instead of scanning all tables.
      *
+     * @param tableId   table to check
      * @param startTime start of the requested interval (inclusive)
      * @param endTime   end of the requested interval (exclusive)
-     * @return list of reservations that intersect with the given time interval
+     * @return true if an overlapping reservation exists for the table
+     */
+    default boolean existsOverlapping(Long tableId, LocalDateTime startTime, LocalDateTime endTime) {
+        return existsOverlapping(tableId, earliestStart(startTime), startTime, endTime);
+    }
+
+    /**
+     * Variant of existsOverlapping(Long, LocalDateTime, LocalDateTime) with an explicit start_time lower bound.
+     *
+     * @param tableId   table to check
+     * @param earliestStart reservations starting at or before this instant are ignored
+     * @param startTime start of the requested interval (inclusive)
+     * @param endTime   end of the requested interval (exclusive)
+     * @return true if an overlapping reservation exists for the table
      */
     @Query("""
-        select r
+        select count(r) > 0
         from Reservation r
-        where r.startTime < :endTime
+        where r.table.id = :tableId
+          and r.startTime > :earliestStart
+          and r.startTime < :endTime
           and r.endTime   > :startTime
     """)
-    List<Reservation> findOverlapping(
+    boolean existsOverlapping(
+            @Param("tableId") Long tableId,
+            @Param("earliestStart") LocalDateTime earliestStart,
             @Param("startTime") LocalDateTime startTime,
             @Param("endTime") LocalDateTime endTime
     );
+
+    private static LocalDateTime earliestStart(LocalDateTime startTime) {
+        return startTime.minus(ReservationPolicy.DEFAULT_DURATION);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.arturkytt.restaurantreservationsystem.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only projection of a reservation: which table is taken and when.
+ *
+ * Returned by queries that only need reserved intervals, so no Reservation entities
+ * (and no table or restaurant proxies) are put into the persistence context.
+ */
+public record ReservationSlot(
+        Long restaurantId,
+        Long tableId,
+        LocalDateTime startTime,
+        LocalDateTime endTime
+) {}
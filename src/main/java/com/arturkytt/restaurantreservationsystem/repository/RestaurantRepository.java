@@ -0,0 +1,24 @@
+package com.arturkytt.restaurantreservationsystem.repository;
+
+import com.arturkytt.restaurantreservationsystem.domain.Restaurant;
+import com.arturkytt.restaurantreservationsystem.dto.RestaurantDto;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Repository interface for accessing and managing Restaurant entities.
+ *
+ * Provides basic CRUD operations through Spring Data JPA.
+ */
+public interface RestaurantRepository extends JpaRepository<Restaurant, Long> {
+
+    /**
+     * Returns all restaurants sorted by name, selected directly into DTOs.
+     *
+     * @return restaurants sorted by name
+     */
+    @Transactional(readOnly = true)
+    List<RestaurantDto> findAllByOrderByNameAsc();
+}
@@ -0,0 +1,20 @@
+package com.arturkytt.restaurantreservationsystem.repository;
+
+import com.arturkytt.restaurantreservationsystem.domain.Feature;
+import com.arturkytt.restaurantreservationsystem.domain.Zone;
+
+/**
+ * Read-only projection of a dining table joined with one of its features.
+ *
+ * A table is returned once per feature, or once with a null feature if it has none.
+ * FloorPlanSnapshot folds the rows of a table into one record with a feature bitmask.
+ */
+public record TableRow(
+        Long id,
+        String code,
+        int capacity,
+        Zone zone,
+        int x,
+        int y,
+        Feature feature
+) {}
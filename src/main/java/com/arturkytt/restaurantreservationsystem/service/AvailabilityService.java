@@ -1,35 +1,41 @@
 package com.arturkytt.restaurantreservationsystem.service;
 
-import com.arturkytt.restaurantreservationsystem.config.ReservationPolicy;
-import com.arturkytt.restaurantreservationsystem.domain.DiningTable;
-import com.arturkytt.restaurantreservationsystem.domain.Reservation;
 import com.arturkytt.restaurantreservationsystem.domain.Zone;
+import com.arturkytt.restaurantreservationsystem.dto.AvailabilityGridDto;
 import com.arturkytt.restaurantreservationsystem.dto.TableAvailabilityDto;
-import com.arturkytt.restaurantreservationsystem.repository.DiningTableRepository;
-import com.arturkytt.restaurantreservationsystem.repository.ReservationRepository;
+import com.arturkytt.restaurantreservationsystem.dto.TableGridRowDto;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * Service for retrieving dining table availability for a requested time slot.
  *
- * This service calculates the reservation time window using ReservationPolicy.DEFAULT_DURATION,
- * finds overlapping reservations and returns per-table availability and suitability information.
+ * The reservation time window is [time, time + ReservationPolicy.DEFAULT_DURATION).
+ * Tables come from the cached FloorPlanSnapshot and occupancy is answered by the in-memory
+ * ReservationIndex as a bitset of free tables, so no database access happens on this path.
+ * Tables with an active hold (see HoldService) are reported as occupied.
  */
 @Service
 public class AvailabilityService {
 
-    private final DiningTableRepository tableRepository;
-    private final ReservationRepository reservationRepository;
+    /**
+     * Longest grid step: one day, since a grid covers part of a single date.
+     */
+    static final int MAX_STEP_MINUTES = 24 * 60;
+
+    private final FloorPlanCache floorPlanCache;
+    private final ReservationIndex reservationIndex;
+    private final ReservationMetrics metrics;
 
-    public AvailabilityService(DiningTableRepository tableRepository, ReservationRepository reservationRepository) {
-        this.tableRepository = tableRepository;
-        this.reservationRepository = reservationRepository;
+    public AvailabilityService(FloorPlanCache floorPlanCache, ReservationIndex reservationIndex, ReservationMetrics metrics) {
+        this.floorPlanCache = floorPlanCache;
+        this.reservationIndex = reservationIndex;
+        this.metrics = metrics;
     }
 
     /**
@@ -41,44 +47,138 @@ public class AvailabilityService {
      * Zone is used by the recommendation service, but the availability endpoint
      * returns all tables so the floor plan can display full status information.
      *
+     * @param restaurantId restaurant id
      * @param date reservation date
      * @param time reservation start time
      * @param partySize number of guests
      * @param zone optional zone filter; if null, all zones are included
      * @return list of availability results for each table
      */
-    public List<TableAvailabilityDto> getAvailability(LocalDate date, LocalTime time, int partySize, Zone zone) {
-        LocalDateTime startTime = LocalDateTime.of(date, time);
-        LocalDateTime endTime = startTime.plus(ReservationPolicy.DEFAULT_DURATION);
+    public List<TableAvailabilityDto> getAvailability(Long restaurantId, LocalDate date, LocalTime time, int partySize, Zone zone) {
+        return metrics.availabilityTimer().record(() -> availability(restaurantId, date, time, partySize));
+    }
+
+    private List<TableAvailabilityDto> availability(Long restaurantId, LocalDate date, LocalTime time, int partySize) {
+        // 1. Current floor plan snapshot of the restaurant (tables already sorted by code)
+        FloorPlanSnapshot floorPlan = floorPlanCache.current(restaurantId);
+
+        // 2. Resolve free tables for the time window as one bitset from the in-memory index
+        BitSet free = reservationIndex.freeTables(restaurantId, date, time, floorPlan.tableIds());
+
+        // 3. Map to DTO with status/suitable flag
+        return toDtos(floorPlan, free, partySize);
+    }
+
+    /**
+     * Maps every table of the snapshot to an availability DTO.
+     *
+     * @param floorPlan floor plan snapshot
+     * @param free free tables as bits over snapshot rows
+     * @param partySize number of guests
+     * @return availability results in snapshot order
+     */
+    static List<TableAvailabilityDto> toDtos(FloorPlanSnapshot floorPlan, BitSet free, int partySize) {
+        List<TableAvailabilityDto> result = new ArrayList<>(floorPlan.size());
+        for (int row = 0; row < floorPlan.size(); row++) {
+            FloorPlanSnapshot.TableRecord t = floorPlan.table(row);
+            boolean occupied = !free.get(row);
+            boolean suitable = t.capacity() >= partySize;
+            result.add(new TableAvailabilityDto(
+                    t.id(),
+                    t.code(),
+                    t.capacity(),
+                    t.zone(),
+                    t.x(),
+                    t.y(),
+                    t.features(),
+                    occupied,
+                    suitable
+            ));
+        }
+        return result;
+    }
 
-        // 1. Find overlapping reservations for the time window
-        List<Reservation> overlapping = reservationRepository.findOverlapping(startTime, endTime);
+    /**
+     * Returns the occupancy of every table for every slot of [from, to) on the given date.
+     *
+     * The reservations and holds of each table in the range are read with one range scan of the in-memory
+     * index and turned into slots with a sweep line over their sorted start and end times,
+     * so the cost is linear in reservations plus slots instead of one availability check per slot.
+     *
+     * When the range is not a multiple of the step, the last slot still covers a whole step and
+     * ends after 'to'; the index is scanned up to the end of that slot.
+     *
+     * @param restaurantId restaurant id
+     * @param date date of the grid
+     * @param from first slot start (inclusive)
+     * @param to end of the range (exclusive)
+     * @param step slot length in minutes
+     * @return occupancy grid with run-length encoded rows
+     * @throws IllegalArgumentException if the range is empty or the step is not between 1 minute and one day
+     */
+    public AvailabilityGridDto getGrid(Long restaurantId, LocalDate date, LocalTime from, LocalTime to, int step) {
+        if (step <= 0 || step > MAX_STEP_MINUTES) {
+            throw new IllegalArgumentException("Step must be between 1 and " + MAX_STEP_MINUTES + " minutes");
+        }
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+        LocalDateTime rangeStart = LocalDateTime.of(date, from);
+        long stepNanos = Duration.ofMinutes(step).toNanos();
+        int slots = (int) ((Duration.between(from, to).toNanos() + stepNanos - 1) / stepNanos);
+        LocalDateTime rangeEnd = rangeStart.plusMinutes((long) slots * step);
 
-        // 2. Collect occupied table IDs
-        Set<Long> occupiedTableIds = overlapping.stream()
-                .map(r -> r.getTable().getId())
-                .collect(Collectors.toSet());
+        FloorPlanSnapshot floorPlan = floorPlanCache.current(restaurantId);
+        List<TableGridRowDto> rows = new ArrayList<>(floorPlan.size());
+        List<LocalDateTime> starts = new ArrayList<>();
+        List<LocalDateTime> ends = new ArrayList<>();
 
-        // 3. Load all tables and map to DTO with status/suitable flag
-        List<DiningTable> tables = tableRepository.findAll();
+        for (int row = 0; row < floorPlan.size(); row++) {
+            FloorPlanSnapshot.TableRecord t = floorPlan.table(row);
+            starts.clear();
+            ends.clear();
+            reservationIndex.forEachIntersecting(restaurantId, t.id(), rangeStart, rangeEnd, (start, end) -> {
+                starts.add(start);
+                ends.add(end);
+            });
+            // reservations arrive sorted by start, followed by holds; the sweep needs both lists sorted
+            Collections.sort(starts);
+            Collections.sort(ends);
+            rows.add(new TableGridRowDto(t.id(), t.code(), occupiedRuns(starts, ends, rangeStart, step, slots)));
+        }
+        return new AvailabilityGridDto(date, from, to, step, slots, rows);
+    }
 
-        return tables.stream()
-                .map(t -> {
-                    boolean occupied = occupiedTableIds.contains(t.getId());
-                    boolean suitable = t.getCapacity() >= partySize;
-                    return new TableAvailabilityDto(
-                            t.getId(),
-                            t.getCode(),
-                            t.getCapacity(),
-                            t.getZone(),
-                            t.getX(),
-                            t.getY(),
-                            t.getFeatures(),
-                            occupied,
-                            suitable
-                    );
-                })
-                .sorted(Comparator.comparing(TableAvailabilityDto::code))
-                .toList();
+    /**
+     * Sweep line over sorted start and end times: slot [s, s + step) is occupied when the number of
+     * reservations started before s + step exceeds the number of reservations ended at or before s.
+     */
+    private static List<int[]> occupiedRuns(List<LocalDateTime> starts, List<LocalDateTime> ends,
+                                            LocalDateTime rangeStart, int step, int slots) {
+        List<int[]> runs = new ArrayList<>();
+        int started = 0;
+        int ended = 0;
+        int runStart = -1;
+        for (int slot = 0; slot < slots; slot++) {
+            LocalDateTime slotStart = rangeStart.plusMinutes((long) slot * step);
+            LocalDateTime slotEnd = slotStart.plusMinutes(step);
+            while (started < starts.size() && starts.get(started).isBefore(slotEnd)) {
+                started++;
+            }
+            while (ended < ends.size() && !ends.get(ended).isAfter(slotStart)) {
+                ended++;
+            }
+            boolean occupied = started > ended;
+            if (occupied && runStart < 0) {
+                runStart = slot;
+            } else if (!occupied && runStart >= 0) {
+                runs.add(new int[]{runStart, slot - runStart});
+                runStart = -1;
+            }
+        }
+        if (runStart >= 0) {
+            runs.add(new int[]{runStart, slots - runStart});
+        }
+        return runs;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,184 @@
+package com.arturkytt.restaurantreservationsystem.service;
+
+import com.arturkytt.restaurantreservationsystem.config.ReservationPolicy;
+import com.arturkytt.restaurantreservationsystem.dto.AvailabilityDeltaDto;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pushes availability changes to Server-Sent Events subscribers.
+ *
+ * Clients subscribe for the restaurant and date they display. When a reservation is committed, an
+ * AvailabilityDeltaDto is sent to every subscriber of that restaurant whose date can see the reservation
+ * (a window starting late on the previous day may reach into it). Sending happens on the
+ * application task executor, so the booking request does not wait for slow clients.
+ *
+ * Each channel has an outbox drained by at most one executor task at a time, so its subscribers
+ * receive events in the order they were published (a "release" never overtakes its "hold"), while
+ * different channels are still served in parallel.
+ *
+ * Table holds are streamed the same way: a placed hold is sent as a "hold" event (the table is
+ * occupied like by a reservation), a removed hold as a "release" event.
+ *
+ * A channel is removed as soon as its last subscriber completes, times out or fails, so the
+ * channel map only holds restaurants and dates that are currently watched.
+ */
+@Service
+public class AvailabilityStreamService {
+
+    /**
+     * Subscriptions are closed after this time; EventSource clients reconnect automatically.
+     */
+    static final Duration EMITTER_TIMEOUT = Duration.ofMinutes(30);
+
+    private final Map<Channel, Subscribers> subscribers = new ConcurrentHashMap<>();
+    private final TaskExecutor taskExecutor;
+
+    public AvailabilityStreamService(@Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor) {
+        this.taskExecutor = taskExecutor;
+    }
+
+    /**
+     * Registers a new subscriber for availability changes affecting the given restaurant and date.
+     *
+     * @param restaurantId restaurant shown by the client
+     * @param date date shown by the client
+     * @return emitter streaming "reservation" events
+     */
+    public SseEmitter subscribe(Long restaurantId, LocalDate date) {
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT.toMillis());
+        Channel channel = new Channel(restaurantId, date);
+        // Added under the channel's map entry, so it cannot join a set that is being removed.
+        subscribers.compute(channel, (c, existing) -> {
+            Subscribers forDate = existing != null ? existing : new Subscribers(c);
+            forDate.emitters.add(emitter);
+            return forDate;
+        });
+
+        Runnable remove = () -> unsubscribe(channel, emitter);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(e -> remove.run());
+
+        try {
+            emitter.send(SseEmitter.event().comment("subscribed " + date));
+        } catch (IOException e) {
+            remove.run();
+        }
+        return emitter;
+    }
+
+    /**
+     * Sends the committed reservation as a delta to all subscribers of affected dates.
+     *
+     * @param event created reservation
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReservationCreated(ReservationCreatedEvent event) {
+        publish(event.restaurantId(), "reservation",
+                new AvailabilityDeltaDto(event.tableId(), event.startTime(), event.endTime()));
+    }
+
+    /**
+     * Sends a placed or removed hold as a delta to all subscribers of affected dates.
+     *
+     * @param event placed or removed hold
+     */
+    @EventListener
+    public void onTableHold(TableHoldEvent event) {
+        publish(event.restaurantId(), event.placed() ? "hold" : "release",
+                new AvailabilityDeltaDto(event.tableId(), event.startTime(), event.endTime()));
+    }
+
+    private void publish(Long restaurantId, String name, AvailabilityDeltaDto delta) {
+        LocalDate first = delta.startTime().minus(ReservationPolicy.DEFAULT_DURATION).toLocalDate();
+        LocalDate last = delta.endTime().toLocalDate();
+
+        for (LocalDate date = first; !date.isAfter(last); date = date.plusDays(1)) {
+            Subscribers forDate = subscribers.get(new Channel(restaurantId, date));
+            if (forDate != null && !forDate.emitters.isEmpty()) {
+                forDate.send(new Delta(name, delta));
+            }
+        }
+    }
+
+    private void broadcast(Subscribers forDate, Delta event) {
+        for (SseEmitter emitter : forDate.emitters) {
+            try {
+                emitter.send(SseEmitter.event().name(event.name()).data(event.delta(), MediaType.APPLICATION_JSON));
+            } catch (IOException | IllegalStateException e) {
+                unsubscribe(forDate.channel, emitter);
+            }
+        }
+    }
+
+    /**
+     * Removes the emitter and drops the channel once it has no subscribers left.
+     */
+    private void unsubscribe(Channel channel, SseEmitter emitter) {
+        subscribers.computeIfPresent(channel, (c, forDate) -> {
+            forDate.emitters.remove(emitter);
+            return forDate.emitters.isEmpty() ? null : forDate;
+        });
+    }
+
+    /**
+     * Subscription key: the restaurant and date a client displays.
+     */
+    private record Channel(Long restaurantId, LocalDate date) {}
+
+    /**
+     * Event waiting in an outbox: SSE event name and payload.
+     */
+    private record Delta(String name, AvailabilityDeltaDto delta) {}
+
+    /**
+     * Subscribers of one channel and the events not yet sent to them. send schedules a drain task
+     * only if none is running; the task sends queued events in order until the outbox is empty.
+     */
+    private final class Subscribers implements Runnable {
+
+        final Channel channel;
+        final Set<SseEmitter> emitters = new CopyOnWriteArraySet<>();
+        private final Queue<Delta> outbox = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        Subscribers(Channel channel) {
+            this.channel = channel;
+        }
+
+        void send(Delta event) {
+            outbox.add(event);
+            if (draining.compareAndSet(false, true)) {
+                taskExecutor.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            do {
+                for (Delta event = outbox.poll(); event != null; event = outbox.poll()) {
+                    broadcast(this, event);
+                }
+                draining.set(false);
+                // An event added after the last poll but before the flag was cleared found the drain running.
+            } while (!outbox.isEmpty() && draining.compareAndSet(false, true));
+        }
+    }
+}
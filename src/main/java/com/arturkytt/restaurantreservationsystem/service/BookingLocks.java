@@ -0,0 +1,210 @@
+package com.arturkytt.restaurantreservationsystem.service;
+
+import com.arturkytt.restaurantreservationsystem.dto.TableContentionDto;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Striped in-process locks for booking, keyed by table id and reservation date.
+ *
+ * A booking locks the stripes of every date its time window touches, so a window crossing
+ * midnight (23:00 to 01:00) also locks the next date and is serialized with bookings starting
+ * there. A batch locks the stripes of all its items at once (withLocks). Stripes are always acquired
+ * in ascending stripe order, so two bookings or batches locking the same stripes cannot deadlock.
+ *
+ * Bookings of the same table and date are serialized, so a burst of requests for one popular
+ * table is checked one by one against the in-memory ReservationIndex and the losers fail fast
+ * before opening a database transaction. Bookings of different tables usually map to different
+ * stripes and proceed in parallel.
+ *
+ * Every restaurant has its own set of stripes, so a booking burst at one restaurant never
+ * makes bookings at another restaurant wait.
+ *
+ * Per-table contention counters are kept so hot tables can be identified.
+ */
+@Component
+public class BookingLocks {
+
+    static final int STRIPES = 64;
+    static final Duration MAX_WAIT = Duration.ofSeconds(2);
+
+    /**
+     * Table and interval of one booking, for locking several bookings at once.
+     */
+    public record Slot(Long tableId, LocalDateTime startTime, LocalDateTime endTime) {}
+
+    private final Map<Long, Site> sites = new ConcurrentHashMap<>();
+
+    /**
+     * Runs the action while holding the stripe locks of the given table for every date
+     * the interval touches.
+     *
+     * @param restaurantId restaurant of the table
+     * @param tableId table id
+     * @param startTime start of the booked interval (inclusive)
+     * @param endTime end of the booked interval (exclusive)
+     * @param action action to run
+     * @return result of the action
+     * @throws IllegalStateException if a lock could not be acquired within MAX_WAIT
+     */
+    public <T> T withLock(Long restaurantId, Long tableId, LocalDateTime startTime, LocalDateTime endTime,
+                          Supplier<T> action) {
+        return withLocks(restaurantId, List.of(new Slot(tableId, startTime, endTime)), action);
+    }
+
+    /**
+     * Runs the action while holding the stripe locks of all given bookings, for example the items
+     * of a batch. Each stripe is locked once, in ascending order.
+     *
+     * @param restaurantId restaurant of the tables
+     * @param slots tables and intervals to lock
+     * @param action action to run
+     * @return result of the action
+     * @throws IllegalStateException if a lock could not be acquired within MAX_WAIT
+     */
+    public <T> T withLocks(Long restaurantId, Collection<Slot> slots, Supplier<T> action) {
+        Site site = site(restaurantId);
+        // Contention on a stripe is counted for the first table that needs it.
+        SortedMap<Integer, Counters> stripes = new TreeMap<>();
+        Set<Long> tables = new HashSet<>();
+        for (Slot slot : slots) {
+            Counters c = site.counters(slot.tableId());
+            if (tables.add(slot.tableId())) {
+                c.acquisitions.increment();
+            }
+            for (int stripe : stripes(slot.tableId(), slot.startTime(), slot.endTime())) {
+                stripes.putIfAbsent(stripe, c);
+            }
+        }
+
+        List<ReentrantLock> locked = new ArrayList<>(stripes.size());
+        try {
+            for (Map.Entry<Integer, Counters> e : stripes.entrySet()) {
+                ReentrantLock lock = site.locks[e.getKey()];
+                acquire(lock, e.getValue());
+                locked.add(lock);
+            }
+            return action.get();
+        } finally {
+            for (int i = locked.size() - 1; i >= 0; i--) {
+                locked.get(i).unlock();
+            }
+        }
+    }
+
+    /**
+     * Records a booking that was rejected by the in-memory conflict check without touching the database.
+     *
+     * @param restaurantId restaurant of the table
+     * @param tableId table id
+     */
+    public void recordRejected(Long restaurantId, Long tableId) {
+        site(restaurantId).counters(tableId).rejected.increment();
+    }
+
+    /**
+     * Returns the contention counters of all tables of the restaurant that have been booked
+     * since startup, most contended first.
+     *
+     * @param restaurantId restaurant id
+     * @return contention statistics per table
+     */
+    public List<TableContentionDto> contention(Long restaurantId) {
+        Site site = sites.get(restaurantId);
+        if (site == null) {
+            return List.of();
+        }
+        return site.counters.entrySet().stream()
+                .map(e -> new TableContentionDto(
+                        e.getKey(),
+                        e.getValue().acquisitions.sum(),
+                        e.getValue().contended.sum(),
+                        e.getValue().rejected.sum(),
+                        e.getValue().timedOut.sum()
+                ))
+                .sorted(Comparator.comparingLong(TableContentionDto::contended).reversed()
+                        .thenComparing(TableContentionDto::tableId))
+                .toList();
+    }
+
+    private Site site(Long restaurantId) {
+        return sites.computeIfAbsent(restaurantId, id -> new Site());
+    }
+
+    private static void acquire(ReentrantLock lock, Counters c) {
+        if (lock.tryLock()) {
+            return;
+        }
+        c.contended.increment();
+        try {
+            if (!lock.tryLock(MAX_WAIT.toMillis(), TimeUnit.MILLISECONDS)) {
+                c.timedOut.increment();
+                throw new IllegalStateException("Table is busy, please retry");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for table lock", e);
+        }
+    }
+
+    /**
+     * Returns the distinct stripes of the table for the dates from startTime to endTime.
+     */
+    private static int[] stripes(Long tableId, LocalDateTime startTime, LocalDateTime endTime) {
+        LocalDate last = endTime.minusNanos(1).toLocalDate();
+        IntStream.Builder stripes = IntStream.builder();
+        for (LocalDate date = startTime.toLocalDate(); !date.isAfter(last); date = date.plusDays(1)) {
+            stripes.add(stripe(tableId, date));
+        }
+        return stripes.build().distinct().toArray();
+    }
+
+    private static int stripe(Long tableId, LocalDate date) {
+        int h = 31 * Long.hashCode(tableId) + date.hashCode();
+        h ^= h >>> 16;
+        return h & (STRIPES - 1);
+    }
+
+    /**
+     * Lock stripes and contention counters of one restaurant.
+     */
+    private static final class Site {
+        final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+        final Map<Long, Counters> counters = new ConcurrentHashMap<>();
+
+        Site() {
+            for (int i = 0; i < STRIPES; i++) {
+                locks[i] = new ReentrantLock();
+            }
+        }
+
+        Counters counters(Long tableId) {
+            return counters.computeIfAbsent(tableId, id -> new Counters());
+        }
+    }
+
+    private static final class Counters {
+        final LongAdder acquisitions = new LongAdder();
+        final LongAdder contended = new LongAdder();
+        final LongAdder rejected = new LongAdder();
+        final LongAdder timedOut = new LongAdder();
+    }
+}
@@ -0,0 +1,143 @@
+package com.arturkytt.restaurantreservationsystem.service;
+
+import com.arturkytt.restaurantreservationsystem.config.ReservationPolicy;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.BitSet;
+
+/**
+ * Slot occupancy matrix of all tables for a single date.
+ *
+ * The matrix has one row per table and one bit per ReservationPolicy.SLOT_LENGTH slot.
+ * Rows cover the whole day plus the reservation duration after midnight, so a reservation
+ * starting late in the evening can still be checked against a single matrix.
+ *
+ * Reserved intervals are rounded outwards to whole slots. For slot-aligned queries this is exact,
+ * because an aligned window intersects a rounded interval only if it intersects the original one.
+ * With 96 + 8 slots a row fits into two longs, i.e. about 5 KB per day for 300 tables.
+ */
+public final class DayOccupancy {
+
+    static final int SLOT_MINUTES = (int) ReservationPolicy.SLOT_LENGTH.toMinutes();
+    static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+    static final int DURATION_SLOTS = (int) slotsCeil(ReservationPolicy.DEFAULT_DURATION.toNanos());
+    static final int SLOTS = SLOTS_PER_DAY + DURATION_SLOTS;
+    static final int WORDS = (SLOTS + 63) / 64;
+
+    private final LocalDate date;
+    private final long[] tableIds;
+    private final long[] bits;
+    private final long version;
+
+    DayOccupancy(LocalDate date, long[] tableIds, long version) {
+        this.date = date;
+        this.tableIds = tableIds;
+        this.bits = new long[tableIds.length * WORDS];
+        this.version = version;
+    }
+
+    /**
+     * Returns true if the time is on the slot grid, i.e. the matrix answers it exactly.
+     *
+     * @param time reservation start time
+     * @return true if the time is a multiple of the slot length
+     */
+    public static boolean isAligned(LocalTime time) {
+        return time.getNano() == 0 && time.getSecond() == 0 && time.getMinute() % SLOT_MINUTES == 0;
+    }
+
+    /**
+     * Marks the given interval as reserved for the table in the given row.
+     * Parts of the interval outside of the matrix are ignored.
+     */
+    void mark(int row, LocalDateTime startTime, LocalDateTime endTime) {
+        LocalDateTime dayStart = date.atStartOfDay();
+        long from = Math.max(0, Math.floorDiv(Duration.between(dayStart, startTime).toMinutes(), SLOT_MINUTES));
+        long to = Math.min(SLOTS, slotsCeil(Duration.between(dayStart, endTime).toNanos()));
+        for (int slot = (int) from; slot < to; slot++) {
+            bits[row * WORDS + (slot >>> 6)] |= 1L << slot;
+        }
+    }
+
+    /**
+     * Returns true if the table in the given row has no reserved slot
+     * in [time, time + DEFAULT_DURATION).
+     *
+     * @param row table row (index into the table id array the matrix was built for)
+     * @param time reservation start time
+     * @return true if the table is free
+     */
+    public boolean isFree(int row, LocalTime time) {
+        return isFree(row, windowMask(time));
+    }
+
+    /**
+     * Returns all tables that are free in [time, time + DEFAULT_DURATION) as one bitset over rows.
+     *
+     * @param time reservation start time
+     * @return bitset where bit i is set if table tableIds[i] is free
+     */
+    public BitSet freeRows(LocalTime time) {
+        long[] mask = windowMask(time);
+        BitSet free = new BitSet(tableIds.length);
+        for (int row = 0; row < tableIds.length; row++) {
+            if (isFree(row, mask)) {
+                free.set(row);
+            }
+        }
+        return free;
+    }
+
+    LocalDate date() {
+        return date;
+    }
+
+    long[] tableIds() {
+        return tableIds;
+    }
+
+    long version() {
+        return version;
+    }
+
+    /**
+     * Returns true if the table in the given row has no reserved slot in the window.
+     *
+     * @param row table row
+     * @param mask window mask created by windowMask
+     * @return true if the table is free
+     */
+    boolean isFree(int row, long[] mask) {
+        int base = row * WORDS;
+        for (int w = 0; w < WORDS; w++) {
+            if ((bits[base + w] & mask[w]) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the slot mask of [time, time + DEFAULT_DURATION), reusable for checks against many rows.
+     *
+     * @param time slot-aligned start time
+     * @return mask with WORDS words
+     */
+    static long[] windowMask(LocalTime time) {
+        int from = (time.getHour() * 60 + time.getMinute()) / SLOT_MINUTES;
+        long to = Math.min(SLOTS, slotsCeil(time.toNanoOfDay() + ReservationPolicy.DEFAULT_DURATION.toNanos()));
+        long[] mask = new long[WORDS];
+        for (int slot = from; slot < to; slot++) {
+            mask[slot >>> 6] |= 1L << slot;
+        }
+        return mask;
+    }
+
+    private static long slotsCeil(long nanos) {
+        long slotNanos = ReservationPolicy.SLOT_LENGTH.toNanos();
+        return Math.floorDiv(nanos + slotNanos - 1, slotNanos);
+    }
+}
@@ -0,0 +1,59 @@
+package com.arturkytt.restaurantreservationsystem.service;
+
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Builds strong entity tags for conditional GETs of the read endpoints.
+ *
+ * Tags are derived from version counters only, so a request with a matching If-None-Match
+ * header can be answered with 304 Not Modified before any DTO is built:
+ * - floor plan: FloorPlanSnapshot version of the restaurant
+ * - date-based reads (availability, grid, recommendation): floor plan version and
+ *   ReservationIndex.dateVersion of the requested date
+ *
+ * The counters start over when the application restarts, so every tag also carries the
+ * start time of this instance; tags handed out by an earlier instance never match.
+ */
+@Component
+public class EntityTags {
+
+    private final String instance = Long.toString(System.currentTimeMillis(), 36);
+
+    private final FloorPlanCache floorPlanCache;
+    private final ReservationIndex reservationIndex;
+
+    public EntityTags(FloorPlanCache floorPlanCache, ReservationIndex reservationIndex) {
+        this.floorPlanCache = floorPlanCache;
+        this.reservationIndex = reservationIndex;
+    }
+
+    /**
+     * Returns the entity tag of the restaurant's table list.
+     *
+     * @param restaurantId restaurant id
+     * @return quoted strong entity tag
+     * @throws IllegalArgumentException if the restaurant does not exist
+     */
+    public String floorPlan(Long restaurantId) {
+        return quote(instance + "-" + floorPlanCache.current(restaurantId).version());
+    }
+
+    /**
+     * Returns the entity tag of data derived from the restaurant's tables and its reservations on the date.
+     *
+     * @param restaurantId restaurant id
+     * @param date reservation date
+     * @return quoted strong entity tag
+     * @throws IllegalArgumentException if the restaurant does not exist
+     */
+    public String forDate(Long restaurantId, LocalDate date) {
+        long floorPlanVersion = floorPlanCache.current(restaurantId).version();
+        return quote(instance + "-" + floorPlanVersion + "-" + reservationIndex.dateVersion(restaurantId, date));
+    }
+
+    private static String quote(String value) {
+        return "\"" + value + "\"";
+    }
+}
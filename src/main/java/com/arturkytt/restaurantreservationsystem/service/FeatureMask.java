@@ -0,0 +1,61 @@
+package com.arturkytt.restaurantreservationsystem.service;
+
+import com.arturkytt.restaurantreservationsystem.domain.Feature;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Conversions between feature sets and int bitmasks (bit i = Feature ordinal i).
+ *
+ * Decoded sets are shared, unmodifiable instances, so converting a mask back into
+ * a Set for a DTO does not allocate.
+ */
+public final class FeatureMask {
+    private FeatureMask() {}
+
+    private static final Feature[] FEATURES = Feature.values();
+
+    private static final List<Set<Feature>> SETS = new ArrayList<>(1 << FEATURES.length);
+
+    static {
+        for (int mask = 0; mask < 1 << FEATURES.length; mask++) {
+            EnumSet<Feature> set = EnumSet.noneOf(Feature.class);
+            for (Feature f : FEATURES) {
+                if ((mask & (1 << f.ordinal())) != 0) {
+                    set.add(f);
+                }
+            }
+            SETS.add(Collections.unmodifiableSet(set));
+        }
+    }
+
+    /**
+     * Packs a feature set into a bitmask.
+     *
+     * @param features features (may be null)
+     * @return bitmask, 0 for null or empty input
+     */
+    public static int of(Set<Feature> features) {
+        int mask = 0;
+        if (features != null) {
+            for (Feature f : features) {
+                mask |= 1 << f.ordinal();
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Returns the shared unmodifiable feature set for a bitmask.
+     *
+     * @param mask feature bitmask
+     * @return feature set
+     */
+    public static Set<Feature> toSet(int mask) {
+        return SETS.get(mask);
+    }
+}
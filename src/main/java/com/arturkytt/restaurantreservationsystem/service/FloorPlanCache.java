@@ -0,0 +1,93 @@
+package com.arturkytt.restaurantreservationsystem.service;
+
+import com.arturkytt.restaurantreservationsystem.repository.DiningTableRepository;
+import com.arturkytt.restaurantreservationsystem.repository.RestaurantRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Holds the current FloorPlanSnapshot of every restaurant, shared by all read endpoints.
+ *
+ * A restaurant's snapshot is built from the database on first use and replaced atomically
+ * after one of its dining tables has been written (see FloorPlanChangedEvent).
+ * Readers always see a complete snapshot and never touch the database on the hot path.
+ *
+ * Snapshots are kept per restaurant: a table change in one restaurant, and the rebuild that
+ * follows it, neither invalidates nor blocks the snapshots of other restaurants.
+ */
+@Component
+public class FloorPlanCache {
+
+    private final RestaurantRepository restaurantRepository;
+    private final DiningTableRepository tableRepository;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+
+    public FloorPlanCache(RestaurantRepository restaurantRepository, DiningTableRepository tableRepository) {
+        this.restaurantRepository = restaurantRepository;
+        this.tableRepository = tableRepository;
+    }
+
+    /**
+     * Returns the current floor plan snapshot of the restaurant, rebuilding it if one of its
+     * tables was written since the last build.
+     *
+     * @param restaurantId restaurant id
+     * @return current snapshot
+     * @throws IllegalArgumentException if the restaurant does not exist
+     */
+    public FloorPlanSnapshot current(Long restaurantId) {
+        Entry entry = entries.get(restaurantId);
+        if (entry == null) {
+            if (restaurantId == null || !restaurantRepository.existsById(restaurantId)) {
+                throw new IllegalArgumentException("Restaurant not found");
+            }
+            entry = entries.computeIfAbsent(restaurantId, id -> new Entry());
+        }
+        FloorPlanSnapshot current = entry.snapshot;
+        if (current == null || entry.stale) {
+            current = refresh(restaurantId, entry);
+        }
+        return current;
+    }
+
+    /**
+     * Marks the restaurant's snapshot as stale once the transaction that wrote the table has committed.
+     * The next read rebuilds it; several writes in one transaction cause a single rebuild.
+     *
+     * @param event table change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFloorPlanChanged(FloorPlanChangedEvent event) {
+        Entry entry = entries.get(event.restaurantId());
+        if (entry != null) {
+            entry.stale = true;
+        }
+    }
+
+    private FloorPlanSnapshot refresh(Long restaurantId, Entry entry) {
+        synchronized (entry) {
+            FloorPlanSnapshot current = entry.snapshot;
+            if (current != null && !entry.stale) {
+                return current;
+            }
+            entry.stale = false;
+            FloorPlanSnapshot built = FloorPlanSnapshot.of(version.incrementAndGet(), tableRepository.findTableRows(restaurantId));
+            entry.snapshot = built;
+            return built;
+        }
+    }
+
+    /**
+     * Snapshot slot of one restaurant; also the lock its rebuilds synchronize on.
+     */
+    private static final class Entry {
+        volatile FloorPlanSnapshot snapshot;
+        volatile boolean stale = true;
+    }
+}
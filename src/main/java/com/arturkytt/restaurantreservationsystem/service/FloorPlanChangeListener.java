@@ -0,0 +1,29 @@
+package com.arturkytt.restaurantreservationsystem.service;
+
+import com.arturkytt.restaurantreservationsystem.domain.DiningTable;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * JPA entity listener that reports dining table writes as FloorPlanChangedEvent.
+ *
+ * Instantiated by Hibernate through Spring's bean container. It depends only on the event
+ * publisher, because repositories are not available while the EntityManagerFactory is built.
+ */
+public class FloorPlanChangeListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public FloorPlanChangeListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    void onTableWritten(DiningTable table) {
+        eventPublisher.publishEvent(new FloorPlanChangedEvent(table.getRestaurant().getId(), table.getId()));
+    }
+}
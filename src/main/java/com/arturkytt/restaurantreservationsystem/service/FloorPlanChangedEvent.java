@@ -0,0 +1,9 @@
+package com.arturkytt.restaurantreservationsystem.service;
+
+/**
+ * Application event published when a dining table has been inserted, updated or removed.
+ *
+ * FloorPlanCache reacts to it after the surrounding transaction has committed
+ * by invalidating the snapshot of the table's restaurant.
+ */
+public record FloorPlanChangedEvent(Long restaurantId, Long tableId) {}
@@ -0,0 +1,220 @@
+package com.arturkytt.restaurantreservationsystem.service;
+
+import com.arturkytt.restaurantreservationsystem.domain.Feature;
+import com.arturkytt.restaurantreservationsystem.domain.Zone;
+import com.arturkytt.restaurantreservationsystem.dto.TableDto;
+import com.arturkytt.restaurantreservationsystem.repository.TableRow;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable, versioned copy of the restaurant floor plan.
+ *
+ * Tables are stored as a flat array of TableRecord sorted by table code. Zones are kept
+ * as ordinals and features as an int bitmask (see FeatureMask), so read paths work on
+ * plain values instead of Hibernate-managed entities and collections.
+ *
+ * The array index of a table is its row; it matches the bit positions used by
+ * ReservationIndex.freeTables and DayOccupancy when tableIds() is passed in.
+ *
+ * Adjacency lists (tables in the same zone within ADJACENCY_DISTANCE on both axes) are
+ * computed with the snapshot and used to combine tables for large parties.
+ *
+ * Recommendation rankings are computed lazily per request key and cached on the snapshot,
+ * so they are dropped together with it when the floor plan changes.
+ */
+public final class FloorPlanSnapshot {
+
+    private static final Zone[] ZONES = Zone.values();
+
+    /**
+     * Maximum distance on the x and y axis for two tables of the same zone to count as adjacent.
+     * Seeded tables are placed on a grid with a spacing of 2.
+     */
+    static final int ADJACENCY_DISTANCE = 2;
+
+    private final long version;
+    private final TableRecord[] tables;
+    private final long[] tableIds;
+    private final List<TableDto> tableDtos;
+    private final Map<Long, Integer> rowsById;
+    private final int maxCapacity;
+    private final int[][] neighbours;
+    private final Map<Integer, RecommendationRanking> rankings = new ConcurrentHashMap<>();
+
+    private FloorPlanSnapshot(long version, TableRecord[] tables) {
+        this.version = version;
+        this.tables = tables;
+        this.tableIds = Arrays.stream(tables).mapToLong(TableRecord::id).toArray();
+        this.tableDtos = Arrays.stream(tables).map(TableRecord::toDto).toList();
+        this.rowsById = new HashMap<>();
+        for (int row = 0; row < tables.length; row++) {
+            rowsById.put(tables[row].id(), row);
+        }
+        this.maxCapacity = Arrays.stream(tables).mapToInt(TableRecord::capacity).max().orElse(0);
+        this.neighbours = buildNeighbours(tables);
+    }
+
+    /**
+     * Builds a snapshot from table rows (one row per table and feature, see TableRow).
+     *
+     * @param version snapshot version
+     * @param rows table rows
+     * @return snapshot with tables sorted by code
+     */
+    static FloorPlanSnapshot of(long version, List<TableRow> rows) {
+        Map<Long, TableRecord> byId = new HashMap<>();
+        for (TableRow t : rows) {
+            TableRecord record = new TableRecord(
+                    t.id(),
+                    t.code(),
+                    t.capacity(),
+                    t.zone().ordinal(),
+                    t.x(),
+                    t.y(),
+                    t.feature() == null ? 0 : 1 << t.feature().ordinal()
+            );
+            byId.merge(t.id(), record, (a, b) -> a.withFeatureMask(a.featureMask() | b.featureMask()));
+        }
+        TableRecord[] tables = byId.values().stream()
+                .sorted(Comparator.comparing(TableRecord::code))
+                .toArray(TableRecord[]::new);
+        return new FloorPlanSnapshot(version, tables);
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public int size() {
+        return tables.length;
+    }
+
+    /**
+     * Returns the table stored in the given row.
+     *
+     * @param row table row
+     * @return table record
+     */
+    public TableRecord table(int row) {
+        return tables[row];
+    }
+
+    /**
+     * Returns the row of the table with the given id.
+     *
+     * @param tableId table id
+     * @return row, or -1 if the table is not part of the floor plan
+     */
+    public int rowOf(Long tableId) {
+        Integer row = tableId == null ? null : rowsById.get(tableId);
+        return row == null ? -1 : row;
+    }
+
+    /**
+     * Returns table ids in row order. The array must not be modified.
+     *
+     * @return table ids
+     */
+    public long[] tableIds() {
+        return tableIds;
+    }
+
+    /**
+     * Returns the table listing DTOs in row (code) order.
+     *
+     * @return unmodifiable list of tables
+     */
+    public List<TableDto> tableDtos() {
+        return tableDtos;
+    }
+
+    /**
+     * Returns the rows of the tables adjacent to the table in the given row, in ascending order.
+     * The array must not be modified.
+     *
+     * @param row table row
+     * @return adjacent rows
+     */
+    int[] neighbours(int row) {
+        return neighbours[row];
+    }
+
+    /**
+     * Returns the recommendation ranking for the given request key, computing it on first use.
+     *
+     * Only party sizes that some table can seat are cached; other sizes have an empty ranking
+     * (or, for non-positive sizes, are computed on every call), so the cache stays bounded by
+     * maxCapacity * (zones + 1) * feature combinations.
+     *
+     * @param partySize requested number of guests
+     * @param zone requested zone (may be null)
+     * @param featureMask requested features as a FeatureMask bitmask
+     * @return ranking of suitable tables
+     */
+    RecommendationRanking ranking(int partySize, Zone zone, int featureMask) {
+        int effectivePartySize = Math.min(partySize, maxCapacity + 1);
+        if (effectivePartySize < 1) {
+            return RecommendationRanking.build(this, effectivePartySize, zone, featureMask);
+        }
+        int zoneKey = zone == null ? 0 : zone.ordinal() + 1;
+        int key = (effectivePartySize << 16) | (zoneKey << 8) | featureMask;
+        return rankings.computeIfAbsent(key,
+                k -> RecommendationRanking.build(this, effectivePartySize, zone, featureMask));
+    }
+
+    private static int[][] buildNeighbours(TableRecord[] tables) {
+        int[][] result = new int[tables.length][];
+        int[] buffer = new int[tables.length];
+        for (int row = 0; row < tables.length; row++) {
+            TableRecord t = tables[row];
+            int count = 0;
+            for (int other = 0; other < tables.length; other++) {
+                TableRecord o = tables[other];
+                if (other != row
+                        && o.zoneOrdinal() == t.zoneOrdinal()
+                        && Math.abs(o.x() - t.x()) <= ADJACENCY_DISTANCE
+                        && Math.abs(o.y() - t.y()) <= ADJACENCY_DISTANCE) {
+                    buffer[count++] = other;
+                }
+            }
+            result[row] = Arrays.copyOf(buffer, count);
+        }
+        return result;
+    }
+
+    /**
+     * Flat, immutable table record used by the snapshot.
+     */
+    public record TableRecord(
+            long id,
+            String code,
+            int capacity,
+            int zoneOrdinal,
+            int x,
+            int y,
+            int featureMask
+    ) {
+        public Zone zone() {
+            return ZONES[zoneOrdinal];
+        }
+
+        public Set<Feature> features() {
+            return FeatureMask.toSet(featureMask);
+        }
+
+        TableRecord withFeatureMask(int mask) {
+            return new TableRecord(id, code, capacity, zoneOrdinal, x, y, mask);
+        }
+
+        TableDto toDto() {
+            return new TableDto(id, code, capacity, zone(), x, y, features());
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.arturkytt.restaurantreservationsystem.service;
+
+import com.arturkytt.restaurantreservationsystem.domain.Feature;
+import com.arturkytt.restaurantreservationsystem.domain.Zone;
+import com.arturkytt.restaurantreservationsystem.dto.FloorDto;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.BitSet;
+import java.util.Set;
+
+/**
+ * Service building the combined floor view: table geometry, occupancy and the recommendation
+ * for one time slot.
+ *
+ * The floor plan snapshot is read once and the free tables are resolved once as a bitset;
+ * availability and recommendation are both derived from that pair. This replaces the separate
+ * tables, availability and recommendation calls the floor plan view used to make, and the
+ * three parts can no longer disagree because a booking landed between the calls.
+ */
+@Service
+public class FloorService {
+
+    private final FloorPlanCache floorPlanCache;
+    private final ReservationIndex reservationIndex;
+    private final RecommendationService recommendationService;
+    private final ReservationMetrics metrics;
+
+    public FloorService(FloorPlanCache floorPlanCache, ReservationIndex reservationIndex,
+                        RecommendationService recommendationService, ReservationMetrics metrics) {
+        this.floorPlanCache = floorPlanCache;
+        this.reservationIndex = reservationIndex;
+        this.recommendationService = recommendationService;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Returns tables with occupancy and the recommendation for the given time slot.
+     *
+     * @param restaurantId restaurant id
+     * @param date reservation date
+     * @param time reservation start time
+     * @param partySize number of guests
+     * @param zone optional zone restriction of the recommendation; tables of all zones are returned
+     * @param requestedFeatures optional feature preferences used in scoring
+     * @param limit maximum number of top candidates (at least 1)
+     * @return floor view of the slot
+     */
+    public FloorDto getFloor(Long restaurantId, LocalDate date, LocalTime time, int partySize, Zone zone,
+                             Set<Feature> requestedFeatures, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be at least 1");
+        }
+        return metrics.floorTimer().record(() -> {
+            FloorPlanSnapshot floorPlan = floorPlanCache.current(restaurantId);
+            BitSet free = reservationIndex.freeTables(restaurantId, date, time, floorPlan.tableIds());
+            return new FloorDto(
+                    AvailabilityService.toDtos(floorPlan, free, partySize),
+                    recommendationService.rank(floorPlan, free, partySize, zone, requestedFeatures, limit)
+            );
+        });
+    }
+}
@@ -0,0 +1,198 @@
+package com.arturkytt.restaurantreservationsystem.service;
+
+import com.arturkytt.restaurantreservationsystem.config.ReservationPolicy;
+import com.arturkytt.restaurantreservationsystem.dto.CreateHoldRequestDto;
+import com.arturkytt.restaurantreservationsystem.dto.HoldDto;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Service managing temporary table holds.
+ *
+ * A hold reserves a table for one slot for a few seconds, typically while a host confirms
+ * the booking, so a second host trying the same table fails immediately instead of after
+ * the confirmation. Holds:
+ * - are validated like reservations (table, capacity) and placed under the same BookingLocks
+ *   stripes, so they never overlap reservations or other holds known in memory
+ * - are added to the ReservationIndex and therefore count as occupied for availability,
+ *   recommendations and new bookings
+ * - expire through a hashed TimingWheel advanced every TICK_MILLIS, so expiring thousands of
+ *   holds costs O(1) per hold instead of a periodic scan
+ * - are converted into a reservation by ReservationService.confirmHold
+ * - publish a TableHoldEvent when placed and when removed, so availability streams see them
+ *
+ * Holds live in memory only and are lost on restart, which at most frees a table early.
+ */
+@Service
+public class HoldService {
+
+    /**
+     * Hold lifetime used when the request does not specify one, and the accepted maximum.
+     */
+    public static final int DEFAULT_HOLD_SECONDS = 60;
+    public static final int MAX_HOLD_SECONDS = 600;
+
+    /**
+     * Resolution of hold expiry.
+     */
+    static final long TICK_MILLIS = 250;
+    static final int WHEEL_SIZE = 512;
+
+    /**
+     * An active hold.
+     */
+    public record Hold(
+            String id,
+            Long restaurantId,
+            Long tableId,
+            LocalDateTime startTime,
+            LocalDateTime endTime,
+            int partySize,
+            LocalDateTime expiresAt
+    ) {}
+
+    private final FloorPlanCache floorPlanCache;
+    private final ReservationIndex reservationIndex;
+    private final BookingLocks bookingLocks;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Map<String, Entry> holds = new ConcurrentHashMap<>();
+    private final TimingWheel wheel = new TimingWheel(Duration.ofMillis(TICK_MILLIS), WHEEL_SIZE, System.nanoTime());
+
+    public HoldService(FloorPlanCache floorPlanCache, ReservationIndex reservationIndex, BookingLocks bookingLocks,
+                       ApplicationEventPublisher eventPublisher) {
+        this.floorPlanCache = floorPlanCache;
+        this.reservationIndex = reservationIndex;
+        this.bookingLocks = bookingLocks;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Places a hold on a table for the requested slot.
+     *
+     * @param restaurantId restaurant the table belongs to
+     * @param request table, slot, party size and hold lifetime
+     * @return the new hold
+     * @throws IllegalArgumentException if the table does not exist, the party exceeds its capacity
+     *         or the lifetime is out of range
+     * @throws IllegalStateException if the table is reserved or held during the slot
+     */
+    public HoldDto createHold(Long restaurantId, CreateHoldRequestDto request) {
+        int seconds = request.seconds() == null ? DEFAULT_HOLD_SECONDS : request.seconds();
+        if (seconds < 1 || seconds > MAX_HOLD_SECONDS) {
+            throw new IllegalArgumentException("Hold seconds must be between 1 and " + MAX_HOLD_SECONDS);
+        }
+        FloorPlanSnapshot floorPlan = floorPlanCache.current(restaurantId);
+        int row = floorPlan.rowOf(request.tableId());
+        if (row < 0) {
+            throw new IllegalArgumentException("Table not found");
+        }
+        if (request.partySize() > floorPlan.table(row).capacity()) {
+            throw new IllegalArgumentException("Party size exceeds table capacity");
+        }
+
+        Long tableId = request.tableId();
+        LocalDateTime start = LocalDateTime.of(request.date(), request.time());
+        LocalDateTime end = start.plus(ReservationPolicy.DEFAULT_DURATION);
+        Duration lifetime = Duration.ofSeconds(seconds);
+
+        Hold hold = bookingLocks.withLock(restaurantId, tableId, start, end, () -> {
+            if (reservationIndex.isOccupied(restaurantId, tableId, start, end)) {
+                bookingLocks.recordRejected(restaurantId, tableId);
+                throw new IllegalStateException("Table is not available at that time");
+            }
+            Hold created = new Hold(UUID.randomUUID().toString(), restaurantId, tableId, start, end,
+                    request.partySize(), LocalDateTime.now().plus(lifetime));
+            Entry entry = new Entry(created);
+            holds.put(created.id(), entry);
+            reservationIndex.addHold(restaurantId, tableId, start, end);
+            eventPublisher.publishEvent(new TableHoldEvent(restaurantId, tableId, start, end, true));
+            entry.timeout = wheel.schedule(System.nanoTime(), lifetime, () -> remove(created, false));
+            return created;
+        });
+        return toDto(hold);
+    }
+
+    /**
+     * Returns an active hold of the restaurant.
+     *
+     * @param restaurantId restaurant id
+     * @param holdId hold id
+     * @return the hold
+     * @throws IllegalArgumentException if there is no such hold or it has expired
+     */
+    public Hold get(Long restaurantId, String holdId) {
+        Entry entry = holdId == null ? null : holds.get(holdId);
+        if (entry == null || !entry.hold.restaurantId().equals(restaurantId)) {
+            throw new IllegalArgumentException("Hold not found or expired");
+        }
+        return entry.hold;
+    }
+
+    /**
+     * Returns true if the hold has neither expired nor been released.
+     *
+     * @param hold hold returned by get
+     * @return true if the hold is still active
+     */
+    public boolean isActive(Hold hold) {
+        Entry entry = holds.get(hold.id());
+        return entry != null && entry.hold == hold;
+    }
+
+    /**
+     * Releases the hold before it expires; the slot becomes free again.
+     *
+     * @param hold hold returned by get
+     * @return true if the hold was active
+     */
+    public boolean release(Hold hold) {
+        return remove(hold, true);
+    }
+
+    /**
+     * Expires the holds whose lifetime has passed.
+     */
+    @Scheduled(fixedRate = TICK_MILLIS)
+    public void expireHolds() {
+        wheel.advance(System.nanoTime());
+    }
+
+    private boolean remove(Hold hold, boolean cancelTimeout) {
+        Entry entry = holds.get(hold.id());
+        if (entry == null || entry.hold != hold || !holds.remove(hold.id(), entry)) {
+            return false;
+        }
+        TimingWheel.Timeout timeout = entry.timeout;
+        if (cancelTimeout && timeout != null) {
+            timeout.cancel();
+        }
+        reservationIndex.removeHold(hold.restaurantId(), hold.tableId(), hold.startTime(), hold.endTime());
+        eventPublisher.publishEvent(new TableHoldEvent(
+                hold.restaurantId(), hold.tableId(), hold.startTime(), hold.endTime(), false));
+        return true;
+    }
+
+    private static HoldDto toDto(Hold hold) {
+        return new HoldDto(hold.id(), hold.tableId(), hold.startTime(), hold.endTime(), hold.partySize(), hold.expiresAt());
+    }
+
+    /**
+     * Active hold with its expiry timeout; the timeout is set right after the entry is published.
+     */
+    private static final class Entry {
+        final Hold hold;
+        volatile TimingWheel.Timeout timeout;
+
+        Entry(Hold hold) {
+            this.hold = hold;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.arturkytt.restaurantreservationsystem.service;
+
+import com.arturkytt.restaurantreservationsystem.config.IdempotencyProperties;
+import com.arturkytt.restaurantreservationsystem.domain.IdempotencyKey;
+import com.arturkytt.restaurantreservationsystem.repository.IdempotencyKeyRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Remembers which reservation was created for an Idempotency-Key, so client retries of
+ * POST /api/reservations get the original result instead of booking twice or failing
+ * with "Table already reserved".
+ *
+ * Keys are kept in two places:
+ * - a bounded in-memory map with a TTL (IdempotencyProperties), answering repeated submissions
+ *   without locks, overlap checks or database access
+ * - the reservation_idempotency_key table, written in the transaction of the reservation; its
+ *   primary key rejects a second reservation under the same key, also across application
+ *   instances and restarts
+ *
+ * A key may only be reused for the same request (restaurant, table, start time and party size);
+ * anything else is rejected.
+ */
+@Component
+@EnableConfigurationProperties(IdempotencyProperties.class)
+public class IdempotencyStore {
+
+    /**
+     * Reservation request remembered for a key.
+     */
+    public record Request(Long restaurantId, Long tableId, LocalDateTime startTime, int partySize) {}
+
+    private record Entry(Request request, Long reservationId, LocalDateTime expiresAt) {}
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyStore.class);
+
+    private final IdempotencyKeyRepository repository;
+    private final Duration ttl;
+
+    // Insertion order equals expiry order (constant TTL), so the eldest entry is evicted first.
+    private final Map<String, Entry> entries;
+
+    public IdempotencyStore(IdempotencyKeyRepository repository, IdempotencyProperties properties) {
+        this.repository = repository;
+        this.ttl = properties.ttl();
+        int maxEntries = properties.maxEntries();
+        this.entries = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Validates an Idempotency-Key header value.
+     *
+     * @param key header value, may be null
+     * @return the key, or null if none was sent
+     * @throws IllegalArgumentException if the key is blank or longer than IdempotencyKey.MAX_LENGTH
+     */
+    public static String checkKey(String key) {
+        if (key == null) {
+            return null;
+        }
+        if (key.isBlank() || key.length() > IdempotencyKey.MAX_LENGTH) {
+            throw new IllegalArgumentException(
+                    "Idempotency-Key must be non-blank and at most " + IdempotencyKey.MAX_LENGTH + " characters");
+        }
+        return key;
+    }
+
+    /**
+     * Returns the reservation created for the key if it is still in memory.
+     *
+     * @param key idempotency key
+     * @param request the current request
+     * @return reservation id, or null if the key is not known in memory
+     * @throws IllegalArgumentException if the key was used for a different request
+     */
+    public Long cached(String key, Request request) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry != null && !entry.expiresAt().isAfter(LocalDateTime.now())) {
+                entries.remove(key);
+                entry = null;
+            }
+        }
+        return entry == null ? null : reservationOf(entry, request);
+    }
+
+    /**
+     * Returns the reservation created for the key, looking in memory first and then in the database.
+     * Keys found in the database are cached for the rest of their TTL.
+     *
+     * @param key idempotency key
+     * @param request the current request
+     * @return reservation id, or null if the key was not used within the TTL
+     * @throws IllegalArgumentException if the key was used for a different request
+     */
+    public Long stored(String key, Request request) {
+        Long cached = cached(key, request);
+        if (cached != null) {
+            return cached;
+        }
+        IdempotencyKey row = repository.findById(key).orElse(null);
+        if (row == null) {
+            return null;
+        }
+        LocalDateTime expiresAt = row.getCreatedAt().plus(ttl);
+        if (!expiresAt.isAfter(LocalDateTime.now())) {
+            return null;
+        }
+        Entry entry = new Entry(
+                new Request(row.getRestaurantId(), row.getTableId(), row.getStartTime(), row.getPartySize()),
+                row.getReservationId(),
+                expiresAt);
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+        return reservationOf(entry, request);
+    }
+
+    /**
+     * Stores the key of a new reservation inside the current transaction. A row of the key that
+     * has expired but was not deleted by deleteExpired yet is replaced.
+     *
+     * @param key idempotency key
+     * @param request the request that created the reservation
+     * @param reservationId created reservation
+     * @throws DataIntegrityViolationException if an unexpired row of the key is already stored
+     */
+    public void save(String key, Request request, Long reservationId) {
+        LocalDateTime now = LocalDateTime.now();
+        int stored = repository.insert(key, reservationId, request.restaurantId(), request.tableId(),
+                request.startTime(), request.partySize(), now, now.minus(ttl));
+        if (stored == 0) {
+            throw new DataIntegrityViolationException("Idempotency-Key " + key + " is already stored");
+        }
+    }
+
+    /**
+     * Caches the key of a committed reservation.
+     *
+     * @param key idempotency key
+     * @param request the request that created the reservation
+     * @param reservationId created reservation
+     */
+    public void remember(String key, Request request, Long reservationId) {
+        Entry entry = new Entry(request, reservationId, LocalDateTime.now().plus(ttl));
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+    }
+
+    /**
+     * Deletes keys older than the TTL from the database. Retries after that are new requests.
+     */
+    @Scheduled(cron = "${app.idempotency.cleanup-cron:0 15 * * * *}")
+    public void deleteExpired() {
+        try {
+            int deleted = repository.deleteCreatedBefore(LocalDateTime.now().minus(ttl));
+            if (deleted > 0) {
+                log.info("Deleted {} expired idempotency keys", deleted);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not delete expired idempotency keys: {}", e.getMostSpecificCause().getMessage());
+        }
+    }
+
+    private static Long reservationOf(Entry entry, Request request) {
+        if (!entry.request().equals(request)) {
+            throw new IllegalArgumentException("Idempotency-Key was already used for a different reservation request");
+        }
+        return entry.reservationId();
+    }
+}
@@ -0,0 +1,109 @@
+package com.arturkytt.restaurantreservationsystem.service;
+
+import com.arturkytt.restaurantreservationsystem.domain.Zone;
+
+import java.util.Arrays;
+
+/**
+ * Pre-sorted table order of a floor plan snapshot for one (partySize, zone, featureMask) key.
+ *
+ * The recommendation score depends only on table attributes and request parameters, not on time,
+ * so the order can be computed once per key and reused for every request until the floor plan changes.
+ * Tables with insufficient capacity or outside the requested zone are not part of the order.
+ *
+ * Order: highest score first, ties broken by table code (the snapshot row order).
+ */
+final class RecommendationRanking {
+
+    private final int[] rows;
+    private final int[] scores;
+
+    private RecommendationRanking(int[] rows, int[] scores) {
+        this.rows = rows;
+        this.scores = scores;
+    }
+
+    /**
+     * Scores and sorts all suitable tables of the snapshot.
+     *
+     * @param floorPlan floor plan snapshot
+     * @param partySize requested number of guests
+     * @param zone requested zone (may be null)
+     * @param featureMask requested features as a FeatureMask bitmask
+     * @return ranking for the key
+     */
+    static RecommendationRanking build(FloorPlanSnapshot floorPlan, int partySize, Zone zone, int featureMask) {
+        // Each candidate is packed into one long: inverted score in the high half, row in the low half.
+        // Sorting the primitive array yields score descending, then row (code) ascending, without boxing.
+        long[] packed = new long[floorPlan.size()];
+        int count = 0;
+        for (int row = 0; row < floorPlan.size(); row++) {
+            FloorPlanSnapshot.TableRecord t = floorPlan.table(row);
+            if (t.capacity() >= partySize && (zone == null || t.zone() == zone)) {
+                int score = score(t, partySize, zone, featureMask);
+                packed[count++] = ((long) (Integer.MAX_VALUE - score) << 32) | row;
+            }
+        }
+        Arrays.sort(packed, 0, count);
+
+        int[] rows = new int[count];
+        int[] scores = new int[count];
+        for (int i = 0; i < count; i++) {
+            rows[i] = (int) packed[i];
+            scores[i] = Integer.MAX_VALUE - (int) (packed[i] >>> 32);
+        }
+        return new RecommendationRanking(rows, scores);
+    }
+
+    /**
+     * Computes a recommendation score for a single candidate table.
+     *
+     * Scoring rules:
+     * - capacity fit: prefer minimal unused seats
+     * - zone bonus when a zone is requested and matches
+     * - feature match bonus for each requested feature present on the table
+     *
+     * @param t candidate table
+     * @param partySize requested number of guests
+     * @param requestedZone requested zone (may be null)
+     * @param requestedFeatureMask requested features as a FeatureMask bitmask (0 if none)
+     * @return calculated score
+     */
+    static int score(FloorPlanSnapshot.TableRecord t, int partySize, Zone requestedZone, int requestedFeatureMask) {
+        int score = 0;
+
+        // Capacity fit: smaller waste is better.
+        // Example: partySize=4, capacity=4 => waste=0 => max points here
+        int waste = t.capacity() - partySize;
+        score += Math.max(0, 20 - waste * 2);
+
+        // Zone match bonus (if zone is requested).
+        if (requestedZone != null && t.zone() == requestedZone) {
+            score += 5;
+        }
+
+        // Feature match bonus: one bonus per requested feature present on the table.
+        int matches = Integer.bitCount(t.featureMask() & requestedFeatureMask);
+        score += matches * 10;
+
+        return score;
+    }
+
+    int size() {
+        return rows.length;
+    }
+
+    /**
+     * Returns the snapshot row of the table at the given rank.
+     */
+    int row(int rank) {
+        return rows[rank];
+    }
+
+    /**
+     * Returns the score of the table at the given rank.
+     */
+    int score(int rank) {
+        return scores[rank];
+    }
+}
@@ -1,47 +1,69 @@
 package com.arturkytt.restaurantreservationsystem.service;
 
 import com.arturkytt.restaurantreservationsystem.config.ReservationPolicy;
-import com.arturkytt.restaurantreservationsystem.domain.DiningTable;
 import com.arturkytt.restaurantreservationsystem.domain.Feature;
-import com.arturkytt.restaurantreservationsystem.domain.Reservation;
 import com.arturkytt.restaurantreservationsystem.domain.Zone;
+import com.arturkytt.restaurantreservationsystem.dto.NextAvailableSlotDto;
 import com.arturkytt.restaurantreservationsystem.dto.RecommendationCandidateDto;
 import com.arturkytt.restaurantreservationsystem.dto.RecommendationResponseDto;
-import com.arturkytt.restaurantreservationsystem.repository.DiningTableRepository;
-import com.arturkytt.restaurantreservationsystem.repository.ReservationRepository;
+import com.arturkytt.restaurantreservationsystem.dto.TableCombinationDto;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Service that recommends the best available table based on availability and preferences.
  *
  * The service:
- * - excludes occupied tables based on overlapping reservations in the requested time window
+ * - excludes tables reserved or held in the requested time window (answered by the in-memory ReservationIndex)
  * - excludes tables with insufficient capacity
  * - optionally filters by zone
  * - scores the remaining candidates and selects the highest scoring table
  *
- * If no candidates are available, the recommended table is null.
+ * Scores do not depend on time, so the candidate order per (partySize, zone, features) is
+ * precomputed on the floor plan snapshot (see RecommendationRanking) and a request only walks
+ * that order, skipping occupied tables, until it has the top candidates.
+ *
+ * If no candidates are available, the recommended table is null and the response lists
+ * combinations of adjacent free tables instead (see TableCombinationSolver).
  */
 @Service
 public class RecommendationService {
 
-    private final DiningTableRepository tableRepository;
-    private final ReservationRepository reservationRepository;
+    /**
+     * Number of top candidates returned when the caller does not ask for a specific limit.
+     */
+    public static final int DEFAULT_LIMIT = 3;
+
+    /**
+     * Upper bounds for the slot searches (next-available and flexible).
+     */
+    public static final int MAX_NEXT_AVAILABLE = 20;
+    public static final int MAX_SEARCH_DAYS = 31;
 
-    public RecommendationService(DiningTableRepository tableRepository, ReservationRepository reservationRepository) {
-        this.tableRepository = tableRepository;
-        this.reservationRepository = reservationRepository;
+    private final FloorPlanCache floorPlanCache;
+    private final ReservationIndex reservationIndex;
+    private final ReservationMetrics metrics;
+    private final TaskExecutor taskExecutor;
+
+    public RecommendationService(FloorPlanCache floorPlanCache, ReservationIndex reservationIndex, ReservationMetrics metrics,
+                                 @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor) {
+        this.floorPlanCache = floorPlanCache;
+        this.reservationIndex = reservationIndex;
+        this.metrics = metrics;
+        this.taskExecutor = taskExecutor;
     }
 
     /**
      * Returns a recommendation result for the given time slot and requirements.
      *
+     * @param restaurantId restaurant id
      * @param date reservation date
      * @param time reservation start time
      * @param partySize number of guests
@@ -50,94 +72,270 @@ public class RecommendationService {
      * @return recommendation response containing the best table (or null) and the top candidates
      */
     public RecommendationResponseDto recommend(
+            Long restaurantId,
             LocalDate date,
             LocalTime time,
             int partySize,
             Zone zone,
             Set<Feature> requestedFeatures
     ) {
-        // Assumption: default reservation duration is fixed (2 hours).
-        LocalDateTime startTime = LocalDateTime.of(date, time);
-        LocalDateTime endTime = startTime.plus(ReservationPolicy.DEFAULT_DURATION);
-
-        // Find reservations that overlap with the requested window.
-        List<Reservation> overlapping = reservationRepository.findOverlapping(startTime, endTime);
-
-        // Mark occupied tables (O(1) lookup later).
-        Set<Long> occupiedTableIds = overlapping.stream()
-                .map(r -> r.getTable().getId())
-                .collect(Collectors.toSet());
-
-        // Fetch all tables once; then filter in memory.
-        List<DiningTable> tables = tableRepository.findAll();
-
-        // Filter by availability, capacity and optional zone.
-        List<DiningTable> candidates = tables.stream()
-                .filter(t -> !occupiedTableIds.contains(t.getId()))
-                .filter(t -> t.getCapacity() >= partySize)
-                .filter(t -> zone == null || t.getZone() == zone)
-                .toList();
+        return recommend(restaurantId, date, time, partySize, zone, requestedFeatures, DEFAULT_LIMIT);
+    }
 
-        // Score and sort candidates: highest score wins.
-        List<RecommendationCandidateDto> scored = candidates.stream()
-                .map(t -> toScoredDto(t, partySize, zone, requestedFeatures))
-                .sorted(Comparator.comparingInt(RecommendationCandidateDto::score).reversed()
-                        .thenComparing(RecommendationCandidateDto::code))
-                .toList();
+    /**
+     * Returns a recommendation result with up to limit top candidates.
+     *
+     * Only the returned candidates are materialized as DTOs; all other tables are handled
+     * as rows and scores of the precomputed ranking.
+     *
+     * @param restaurantId restaurant id
+     * @param date reservation date
+     * @param time reservation start time
+     * @param partySize number of guests
+     * @param zone optional zone restriction; if null, all zones are considered
+     * @param requestedFeatures optional feature preferences used in scoring
+     * @param limit maximum number of top candidates (at least 1)
+     * @return recommendation response containing the best table (or null) and the top candidates
+     */
+    public RecommendationResponseDto recommend(
+            Long restaurantId,
+            LocalDate date,
+            LocalTime time,
+            int partySize,
+            Zone zone,
+            Set<Feature> requestedFeatures,
+            int limit
+    ) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be at least 1");
+        }
+        return metrics.recommendationTimer().record(() -> rank(restaurantId, date, time, partySize, zone, requestedFeatures, limit));
+    }
+
+    private RecommendationResponseDto rank(Long restaurantId, LocalDate date, LocalTime time, int partySize, Zone zone,
+                                           Set<Feature> requestedFeatures, int limit) {
+        // Shared floor plan snapshot of the restaurant; no database access.
+        FloorPlanSnapshot floorPlan = floorPlanCache.current(restaurantId);
+
+        // Free tables for [time, time + DEFAULT_DURATION) as one bitset over snapshot rows.
+        BitSet free = reservationIndex.freeTables(restaurantId, date, time, floorPlan.tableIds());
+
+        return rank(floorPlan, free, partySize, zone, requestedFeatures, limit);
+    }
+
+    /**
+     * Ranks the free tables of the snapshot for the party.
+     *
+     * @param floorPlan floor plan snapshot
+     * @param free free tables as bits over snapshot rows
+     * @param partySize number of guests
+     * @param zone optional zone restriction
+     * @param requestedFeatures optional feature preferences used in scoring
+     * @param limit maximum number of top candidates
+     * @return recommendation response
+     */
+    RecommendationResponseDto rank(FloorPlanSnapshot floorPlan, BitSet free, int partySize, Zone zone,
+                                   Set<Feature> requestedFeatures, int limit) {
+        // Capacity- and zone-filtered tables, already sorted by score (cached per request key).
+        RecommendationRanking ranking = floorPlan.ranking(partySize, zone, FeatureMask.of(requestedFeatures));
 
-        RecommendationCandidateDto best = scored.isEmpty() ? null : scored.getFirst();
-        List<RecommendationCandidateDto> top = scored.stream().limit(3).toList();
+        // Walk the ranking and keep the first free tables.
+        List<RecommendationCandidateDto> top = new ArrayList<>(Math.min(limit, ranking.size()));
+        for (int rank = 0; rank < ranking.size() && top.size() < limit; rank++) {
+            int row = ranking.row(rank);
+            if (free.get(row)) {
+                top.add(toDto(floorPlan.table(row), ranking.score(rank)));
+            }
+        }
+
+        RecommendationCandidateDto best = top.isEmpty() ? null : top.getFirst();
 
-        return new RecommendationResponseDto(best, top);
+        // No single free table seats the party: look for adjacent tables that can be joined.
+        List<TableCombinationDto> combinations = top.isEmpty()
+                ? TableCombinationSolver.solve(floorPlan, free, partySize, zone, limit, TableCombinationSolver.TIME_BUDGET)
+                : List.of();
+        return new RecommendationResponseDto(best, top, combinations);
     }
 
     /**
-     * Computes a recommendation score for a single candidate table.
+     * Returns the earliest start times at which a suitable table is free, with the best table for each.
      *
-     * Scoring rules:
-     * - capacity fit: prefer minimal unused seats
-     * - zone bonus when a zone is requested and matches
-     * - feature match bonus for each requested feature present on the table
+     * The search starts at the given time (or OPENING_TIME) on the given date and moves forward slot by
+     * slot until LAST_SEATING, then continues with the next day. Each day is answered by one DayOccupancy
+     * matrix built from the in-memory ReservationIndex, so the whole scan runs without database queries.
      *
-     * @param t candidate table
-     * @param partySize requested number of guests
-     * @param requestedZone requested zone (may be null)
-     * @param requestedFeatures requested features (may be null or empty)
-     * @return DTO containing table details and the calculated score
+     * @param restaurantId restaurant id
+     * @param date first date to search
+     * @param after optional earliest start time on the first date; rounded up to the slot grid
+     * @param partySize number of guests
+     * @param zone optional zone restriction
+     * @param requestedFeatures optional feature preferences used in scoring
+     * @param count maximum number of start times to return
+     * @param days number of days to search, starting with date
+     * @return free start times in chronological order
      */
-    private RecommendationCandidateDto toScoredDto(DiningTable t, int partySize, Zone requestedZone, Set<Feature> requestedFeatures) {
-        int score = 0;
+    public List<NextAvailableSlotDto> nextAvailable(
+            Long restaurantId,
+            LocalDate date,
+            LocalTime after,
+            int partySize,
+            Zone zone,
+            Set<Feature> requestedFeatures,
+            int count,
+            int days
+    ) {
+        if (count < 1 || count > MAX_NEXT_AVAILABLE) {
+            throw new IllegalArgumentException("Count must be between 1 and " + MAX_NEXT_AVAILABLE);
+        }
+        if (days < 1 || days > MAX_SEARCH_DAYS) {
+            throw new IllegalArgumentException("Days must be between 1 and " + MAX_SEARCH_DAYS);
+        }
+
+        FloorPlanSnapshot floorPlan = floorPlanCache.current(restaurantId);
+        RecommendationRanking ranking = floorPlan.ranking(partySize, zone, FeatureMask.of(requestedFeatures));
+        List<NextAvailableSlotDto> result = new ArrayList<>(count);
+        if (ranking.size() == 0) {
+            return result;
+        }
+
+        int firstSlot = slotOf(ReservationPolicy.OPENING_TIME);
+        int lastSlot = slotOf(ReservationPolicy.LAST_SEATING);
+        for (int d = 0; d < days && result.size() < count; d++) {
+            LocalDate day = date.plusDays(d);
+            DayOccupancy occupancy = reservationIndex.dayOccupancy(restaurantId, day, floorPlan.tableIds());
+
+            int slot = firstSlot;
+            if (d == 0 && after != null) {
+                slot = Math.max(slot, slotOf(after) + (DayOccupancy.isAligned(after) ? 0 : 1));
+            }
+            for (; slot <= lastSlot && result.size() < count; slot++) {
+                NextAvailableSlotDto option = bestAt(floorPlan, ranking, occupancy, slot);
+                if (option != null) {
+                    result.add(option);
+                }
+            }
+        }
+        return result;
+    }
 
-        // Capacity fit: smaller waste is better.
-        // Example: partySize=4, capacity=4 => waste=0 => max points here
-        int waste = t.getCapacity() - partySize;
-        score += Math.max(0, 20 - waste * 2);
+    /**
+     * Returns the best options for a range of dates and a daily time window, e.g. "any evening this week".
+     *
+     * Every start time on the slot grid within [windowStart, windowEnd] of every date is a candidate.
+     * Days are evaluated in parallel on the application task executor, so the search is subject to the
+     * same concurrency settings as other background work (virtual threads with the "virtual" profile);
+     * all tasks share the same floor plan snapshot, ranking and in-memory reservation index, and each
+     * day uses one DayOccupancy matrix.
+     *
+     * Options are ordered by the score of their best table, then chronologically.
+     *
+     * @param restaurantId restaurant id
+     * @param from first date (inclusive)
+     * @param to last date (inclusive)
+     * @param windowStart earliest start time per day; rounded up to the slot grid
+     * @param windowEnd latest start time per day
+     * @param partySize number of guests
+     * @param zone optional zone restriction
+     * @param requestedFeatures optional feature preferences used in scoring
+     * @param limit maximum number of options
+     * @return best options
+     */
+    public List<NextAvailableSlotDto> flexibleSearch(
+            Long restaurantId,
+            LocalDate from,
+            LocalDate to,
+            LocalTime windowStart,
+            LocalTime windowEnd,
+            int partySize,
+            Zone zone,
+            Set<Feature> requestedFeatures,
+            int limit
+    ) {
+        long days = ChronoUnit.DAYS.between(from, to) + 1;
+        if (days < 1 || days > MAX_SEARCH_DAYS) {
+            throw new IllegalArgumentException("Date range must cover between 1 and " + MAX_SEARCH_DAYS + " days");
+        }
+        if (windowEnd.isBefore(windowStart)) {
+            throw new IllegalArgumentException("Time window end must not be before its start");
+        }
+        if (limit < 1 || limit > MAX_NEXT_AVAILABLE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_NEXT_AVAILABLE);
+        }
 
-        // Zone match bonus (if zone is requested).
-        if (requestedZone != null && t.getZone() == requestedZone) {
-            score += 5;
+        FloorPlanSnapshot floorPlan = floorPlanCache.current(restaurantId);
+        RecommendationRanking ranking = floorPlan.ranking(partySize, zone, FeatureMask.of(requestedFeatures));
+        if (ranking.size() == 0) {
+            return List.of();
         }
 
-        // Feature match bonus.
-        if (requestedFeatures != null && !requestedFeatures.isEmpty()) {
-            int matches = 0;
-            for (Feature f : requestedFeatures) {
-                if (t.getFeatures().contains(f)) {
-                    matches++;
+        int firstSlot = slotOf(windowStart) + (DayOccupancy.isAligned(windowStart) ? 0 : 1);
+        int lastSlot = slotOf(windowEnd);
+
+        List<CompletableFuture<List<NextAvailableSlotDto>>> perDay = new ArrayList<>((int) days);
+        for (int d = 0; d < days; d++) {
+            LocalDate day = from.plusDays(d);
+            perDay.add(CompletableFuture.supplyAsync(() -> {
+                DayOccupancy occupancy = reservationIndex.dayOccupancy(restaurantId, day, floorPlan.tableIds());
+                List<NextAvailableSlotDto> options = new ArrayList<>();
+                for (int slot = firstSlot; slot <= lastSlot; slot++) {
+                    NextAvailableSlotDto option = bestAt(floorPlan, ranking, occupancy, slot);
+                    if (option != null) {
+                        options.add(option);
+                    }
                 }
+                return options;
+            }, taskExecutor));
+        }
+
+        return perDay.stream()
+                .map(CompletableFuture::join)
+                .flatMap(List::stream)
+                .sorted(Comparator.comparingInt((NextAvailableSlotDto o) -> o.table().score()).reversed()
+                        .thenComparing(NextAvailableSlotDto::date)
+                        .thenComparing(NextAvailableSlotDto::time))
+                .limit(limit)
+                .toList();
+    }
+
+    /**
+     * Returns the best free table of the ranking at the given slot of the occupancy matrix.
+     *
+     * @return option, or null if no ranked table is free
+     */
+    private NextAvailableSlotDto bestAt(FloorPlanSnapshot floorPlan, RecommendationRanking ranking,
+                                        DayOccupancy occupancy, int slot) {
+        LocalTime time = LocalTime.ofSecondOfDay(slot * ReservationPolicy.SLOT_LENGTH.toSeconds());
+        long[] window = DayOccupancy.windowMask(time);
+        for (int rank = 0; rank < ranking.size(); rank++) {
+            int row = ranking.row(rank);
+            if (occupancy.isFree(row, window)) {
+                return new NextAvailableSlotDto(occupancy.date(), time, toDto(floorPlan.table(row), ranking.score(rank)));
             }
-            score += matches * 10;
         }
+        return null;
+    }
 
+    /**
+     * Creates the candidate DTO for a ranked table.
+     *
+     * @param t candidate table
+     * @param score score calculated by RecommendationRanking
+     * @return DTO containing table details and the score
+     */
+    private RecommendationCandidateDto toDto(FloorPlanSnapshot.TableRecord t, int score) {
         return new RecommendationCandidateDto(
-                t.getId(),
-                t.getCode(),
-                t.getCapacity(),
-                t.getZone(),
-                t.getX(),
-                t.getY(),
-                t.getFeatures(),
+                t.id(),
+                t.code(),
+                t.capacity(),
+                t.zone(),
+                t.x(),
+                t.y(),
+                t.features(),
                 score
         );
     }
-}
\ No newline at end of file
+
+    private static int slotOf(LocalTime time) {
+        return (int) (time.toSecondOfDay() / ReservationPolicy.SLOT_LENGTH.toSeconds());
+    }
+}
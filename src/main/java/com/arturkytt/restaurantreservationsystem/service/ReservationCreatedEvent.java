@@ -0,0 +1,17 @@
+package com.arturkytt.restaurantreservationsystem.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Application event published by ReservationService after a reservation has been stored.
+ *
+ * Listeners use it to keep in-memory read structures in sync with the database
+ * without querying it again.
+ */
+public record ReservationCreatedEvent(
+        Long reservationId,
+        Long restaurantId,
+        Long tableId,
+        LocalDateTime startTime,
+        LocalDateTime endTime
+) {}
@@ -0,0 +1,529 @@
+package com.arturkytt.restaurantreservationsystem.service;
+
+import com.arturkytt.restaurantreservationsystem.config.ReservationPolicy;
+import com.arturkytt.restaurantreservationsystem.repository.ReservationRepository;
+import com.arturkytt.restaurantreservationsystem.repository.ReservationSlot;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+
+/**
+ * In-memory index of reserved time intervals, kept per restaurant and dining table.
+ *
+ * The index is loaded from the database once (on application startup or on first use)
+ * and is afterwards updated from ReservationCreatedEvent, so availability and
+ * recommendation reads can answer overlap questions without querying the database.
+ *
+ * A reload (on startup once data seeding is done) only ever adds: stored reservations are merged with
+ * everything already in memory, including holds and journaled reservations that are not stored yet
+ * (see ReservationJournal), and changes made while it runs are not lost.
+ *
+ * Only reservations that can still affect a booking are kept. The index holds the reservations
+ * starting after its horizon, the start of today minus DEFAULT_DURATION, so every window starting
+ * today or later is complete. Once a day evictPast moves the horizon forward and drops older
+ * reservations together with the day matrices and date stamps of past dates; windows before the
+ * horizon look free, which covers reports to writers that rely on the index alone.
+ *
+ * Overlap logic is the same as in ReservationRepository.existsOverlapping and findOverlappingForTables:
+ * existing.startTime < requestedEnd AND existing.endTime > requestedStart
+ *
+ * For slot-aligned requests the index also keeps a DayOccupancy bitset matrix per date.
+ * Matrices are rebuilt lazily when the index changed since they were built. Dates come from
+ * request parameters, so at most MAX_CACHED_DAYS matrices are kept per restaurant; beyond that
+ * the date farthest from today is dropped first, which removes past dates and far-future sweeps
+ * before the dates around today that are actually booked.
+ *
+ * Data is partitioned per restaurant: each partition has its own timelines, day matrices and
+ * version, so a booking in one restaurant does not invalidate the cached matrices of another.
+ *
+ * Temporary table holds (see HoldService) are kept in separate timelines of the same partition.
+ * They count as occupied for every read (isOccupied, freeTables, dayOccupancy, forEachIntersecting)
+ * and are removed again when they expire or are converted into a reservation.
+ *
+ * Every change also stamps the dates it affects with a new value of one index-wide counter
+ * (see dateVersion). The stamps only grow, also across reloads, and are used as entity tags
+ * of date-based read endpoints. Like the day matrices, at most MAX_CACHED_DAYS stamps are kept
+ * per restaurant; evicting one first moves the partition's base stamp (the version of all dates
+ * without a stamp of their own) past it, so the version of the evicted date still grows.
+ */
+@Component
+public class ReservationIndex {
+
+    /**
+     * Maximum number of dates per restaurant with a cached day matrix.
+     */
+    static final int MAX_CACHED_DAYS = 92;
+
+    private final ReservationRepository reservationRepository;
+
+    private final AtomicLong stamps = new AtomicLong();
+
+    private volatile Map<Long, Partition> partitions;
+
+    private volatile LocalDateTime horizon = horizonOf(LocalDate.now());
+
+    // Shared by everything that changes the index, exclusive while a reload merges and swaps partitions.
+    private final ReadWriteLock changes = new ReentrantReadWriteLock();
+
+    public ReservationIndex(ReservationRepository reservationRepository) {
+        this.reservationRepository = reservationRepository;
+    }
+
+    /**
+     * Rebuilds the index once the application (including data seeding) has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reload();
+    }
+
+    /**
+     * Loads all reservations currently stored in the database (from the horizon on) into new partitions
+     * and replaces the current ones with them.
+     *
+     * Everything the current partitions know is carried over: holds, journaled reservations that are not
+     * stored yet and bookings added while the query ran. Carrying over and replacing happen under the
+     * exclusive side of the change lock, so no change can slip in between; reads are never blocked.
+     */
+    public synchronized void reload() {
+        LocalDateTime from = horizonOf(LocalDate.now());
+        horizon = from;
+        Map<Long, Partition> loaded = new ConcurrentHashMap<>();
+        long loadedStamp = stamps.incrementAndGet();
+        for (ReservationSlot r : reservationRepository.findSlotsStartingAfter(from)) {
+            loaded.computeIfAbsent(r.restaurantId(), id -> new Partition(loadedStamp))
+                    .timeline(r.tableId())
+                    .add(r.startTime(), r.endTime());
+        }
+        Map<Long, Partition> previous = partitions;
+        if (previous == null) {
+            // First load: no change can have been made yet (changes wait for the partitions in partitions()).
+            partitions = loaded;
+            return;
+        }
+        changes.writeLock().lock();
+        try {
+            previous.forEach((restaurantId, partition) -> {
+                Partition target = loaded.computeIfAbsent(restaurantId, id -> new Partition(loadedStamp));
+                partition.timelines.forEach((tableId, timeline) -> timeline.copyStartingAfter(from, target.timeline(tableId)));
+                partition.holds.forEach((tableId, held) -> held.copyStartingAfter(
+                        LocalDateTime.MIN, target.holds.computeIfAbsent(tableId, id -> new TableTimeline())));
+            });
+            partitions = loaded;
+        } finally {
+            changes.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Moves the horizon to the start of today minus DEFAULT_DURATION and drops the reservations
+     * starting at or before it, as well as the day matrices and date stamps of past dates.
+     * Evicted dates get the raised base stamp, so their version still grows.
+     */
+    @Scheduled(cron = "${app.index.evict-cron:0 5 0 * * *}")
+    public void evictPast() {
+        LocalDate today = LocalDate.now();
+        LocalDateTime from = horizonOf(today);
+        horizon = from;
+        changing(() -> {
+            for (Partition partition : partitions().values()) {
+                for (TableTimeline timeline : partition.timelines.values()) {
+                    timeline.removeStartingUpTo(from);
+                }
+                partition.dayCache.keySet().removeIf(date -> date.isBefore(today));
+                partition.baseStamp = stamps.incrementAndGet();
+                partition.dateStamps.keySet().removeIf(date -> date.isBefore(today));
+            }
+        });
+    }
+
+    /**
+     * Returns true if the index contains every reservation that can intersect a window starting
+     * at the given time, i.e. the window does not reach back before the horizon.
+     *
+     * @param startTime window start
+     * @return true if an overlap check of the window can rely on the index alone
+     */
+    public boolean covers(LocalDateTime startTime) {
+        return !startTime.minus(ReservationPolicy.DEFAULT_DURATION).isBefore(horizon);
+    }
+
+    /**
+     * Returns true if the given table has a reservation intersecting the interval.
+     *
+     * @param restaurantId restaurant of the table
+     * @param tableId table id
+     * @param startTime start of the requested interval (inclusive)
+     * @param endTime end of the requested interval (exclusive)
+     * @return true if the table is reserved or held during the interval
+     */
+    public boolean isOccupied(Long restaurantId, Long tableId, LocalDateTime startTime, LocalDateTime endTime) {
+        Partition partition = partition(restaurantId);
+        TableTimeline timeline = partition.timelines.get(tableId);
+        if (timeline != null && timeline.overlaps(startTime, endTime)) {
+            return true;
+        }
+        TableTimeline held = partition.holds.get(tableId);
+        return held != null && held.overlaps(startTime, endTime);
+    }
+
+    /**
+     * Returns the tables that are free in [date time, date time + DEFAULT_DURATION) as one bitset.
+     *
+     * Slot-aligned times are answered from the cached DayOccupancy matrix of the date,
+     * other times fall back to per-table interval checks.
+     *
+     * @param restaurantId restaurant of the tables
+     * @param date reservation date
+     * @param time reservation start time
+     * @param tableIds tables to check; bit i of the result refers to tableIds[i]
+     * @return bitset of free tables
+     */
+    public BitSet freeTables(Long restaurantId, LocalDate date, LocalTime time, long[] tableIds) {
+        if (DayOccupancy.isAligned(time)) {
+            return dayOccupancy(restaurantId, date, tableIds).freeRows(time);
+        }
+        LocalDateTime startTime = LocalDateTime.of(date, time);
+        LocalDateTime endTime = startTime.plus(ReservationPolicy.DEFAULT_DURATION);
+        BitSet free = new BitSet(tableIds.length);
+        for (int row = 0; row < tableIds.length; row++) {
+            if (!isOccupied(restaurantId, tableIds[row], startTime, endTime)) {
+                free.set(row);
+            }
+        }
+        return free;
+    }
+
+    /**
+     * Returns the occupancy matrix of the given date for the given tables, building it if needed.
+     *
+     * @param restaurantId restaurant of the tables
+     * @param date reservation date
+     * @param tableIds table ids in row order
+     * @return occupancy matrix
+     */
+    public DayOccupancy dayOccupancy(Long restaurantId, LocalDate date, long[] tableIds) {
+        Partition partition = partition(restaurantId);
+        long current = partition.version.get();
+        DayOccupancy cached = partition.dayCache.get(date);
+        if (cached != null && cached.version() == current && Arrays.equals(cached.tableIds(), tableIds)) {
+            return cached;
+        }
+        DayOccupancy built = partition.buildDayOccupancy(date, tableIds, current);
+        partition.dayCache.put(date, built);
+        if (partition.dayCache.size() > MAX_CACHED_DAYS) {
+            partition.dayCache.remove(farthestFromToday(partition.dayCache.keySet()));
+        }
+        return built;
+    }
+
+    /**
+     * Calls the action for every reservation of the table intersecting [startTime, endTime),
+     * in ascending start time order, and then for every hold of the table intersecting it.
+     *
+     * @param restaurantId restaurant of the table
+     * @param tableId table id
+     * @param startTime start of the range (inclusive)
+     * @param endTime end of the range (exclusive)
+     * @param action receives start and end time of each reservation
+     */
+    public void forEachIntersecting(Long restaurantId, Long tableId, LocalDateTime startTime, LocalDateTime endTime,
+                                    BiConsumer<LocalDateTime, LocalDateTime> action) {
+        Partition partition = partition(restaurantId);
+        TableTimeline timeline = partition.timelines.get(tableId);
+        if (timeline != null) {
+            timeline.forEachIntersecting(startTime, endTime, action);
+        }
+        TableTimeline held = partition.holds.get(tableId);
+        if (held != null) {
+            held.forEachIntersecting(startTime, endTime, action);
+        }
+    }
+
+    /**
+     * Returns the number of reservations starting on the given date, over all restaurants.
+     *
+     * @param date reservation date
+     * @return number of reservations
+     */
+    public int countStartingOn(LocalDate date) {
+        LocalDateTime from = date.atStartOfDay();
+        LocalDateTime to = from.plusDays(1);
+        int count = 0;
+        for (Partition partition : partitions().values()) {
+            for (TableTimeline timeline : partition.timelines.values()) {
+                count += timeline.countStartingIn(from, to);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Adds a reservation interval to the index.
+     *
+     * @param restaurantId restaurant of the table
+     * @param tableId table id
+     * @param startTime reservation start time
+     * @param endTime reservation end time
+     */
+    public void add(Long restaurantId, Long tableId, LocalDateTime startTime, LocalDateTime endTime) {
+        changing(() -> {
+            Partition partition = partition(restaurantId);
+            partition.timeline(tableId).add(startTime, endTime);
+            changed(partition, startTime, endTime);
+        });
+    }
+
+    /**
+     * Adds a table hold to the index. The interval counts as occupied until removeHold is called.
+     *
+     * @param restaurantId restaurant of the table
+     * @param tableId table id
+     * @param startTime held slot start time
+     * @param endTime held slot end time
+     */
+    public void addHold(Long restaurantId, Long tableId, LocalDateTime startTime, LocalDateTime endTime) {
+        changing(() -> {
+            Partition partition = partition(restaurantId);
+            partition.holds.computeIfAbsent(tableId, id -> new TableTimeline()).add(startTime, endTime);
+            changed(partition, startTime, endTime);
+        });
+    }
+
+    /**
+     * Removes a table hold added with addHold.
+     *
+     * @param restaurantId restaurant of the table
+     * @param tableId table id
+     * @param startTime held slot start time
+     * @param endTime held slot end time
+     */
+    public void removeHold(Long restaurantId, Long tableId, LocalDateTime startTime, LocalDateTime endTime) {
+        changing(() -> {
+            Partition partition = partition(restaurantId);
+            TableTimeline held = partition.holds.get(tableId);
+            if (held != null && held.remove(startTime, endTime)) {
+                changed(partition, startTime, endTime);
+            }
+        });
+    }
+
+    /**
+     * Returns the version of the restaurant's reservations affecting the given date.
+     *
+     * A date is affected by a reservation if the reservation intersects any window
+     * [date time, date time + DEFAULT_DURATION) starting on that date. The value changes
+     * whenever such a reservation is added, never decreases and is not shared by two
+     * different states of the date, so it can serve as a strong entity tag.
+     *
+     * @param restaurantId restaurant id
+     * @param date reservation date
+     * @return version of the date
+     */
+    public long dateVersion(Long restaurantId, LocalDate date) {
+        Partition partition = partition(restaurantId);
+        Long stamp = partition.dateStamps.get(date);
+        return stamp != null ? stamp : partition.baseStamp;
+    }
+
+    /**
+     * Keeps the index in sync with newly created reservations once their transaction has committed.
+     *
+     * @param event created reservation
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReservationCreated(ReservationCreatedEvent event) {
+        add(event.restaurantId(), event.tableId(), event.startTime(), event.endTime());
+    }
+
+    /**
+     * Runs a change of the index under the shared side of the change lock, so it is either carried over
+     * by a concurrent reload or made to the partitions that reload installs.
+     */
+    private void changing(Runnable change) {
+        changes.readLock().lock();
+        try {
+            change.run();
+        } finally {
+            changes.readLock().unlock();
+        }
+    }
+
+    /**
+     * Invalidates the day matrices of the partition and stamps the dates affected by the interval.
+     * Stamped after the interval change is visible: a reader that sees the new stamp also sees the change.
+     */
+    private void changed(Partition partition, LocalDateTime startTime, LocalDateTime endTime) {
+        partition.version.incrementAndGet();
+        long stamp = stamps.incrementAndGet();
+        LocalDate first = startTime.minus(ReservationPolicy.DEFAULT_DURATION).toLocalDate();
+        LocalDate last = endTime.minusNanos(1).toLocalDate();
+        for (LocalDate date = first; !date.isAfter(last); date = date.plusDays(1)) {
+            partition.dateStamps.put(date, stamp);
+        }
+        while (partition.dateStamps.size() > MAX_CACHED_DAYS) {
+            LocalDate evicted = farthestFromToday(partition.dateStamps.keySet());
+            // Raised before the removal: a reader missing the evicted stamp sees the new base.
+            partition.baseStamp = stamps.incrementAndGet();
+            partition.dateStamps.remove(evicted);
+        }
+    }
+
+    /**
+     * Returns the start of the given day minus DEFAULT_DURATION: reservations starting at or before
+     * it end before the day begins.
+     */
+    private static LocalDateTime horizonOf(LocalDate today) {
+        return today.atStartOfDay().minus(ReservationPolicy.DEFAULT_DURATION);
+    }
+
+    /**
+     * Returns the date farthest from today, past or future.
+     */
+    private static LocalDate farthestFromToday(Iterable<LocalDate> dates) {
+        long today = LocalDate.now().toEpochDay();
+        LocalDate farthest = null;
+        long distance = -1;
+        for (LocalDate date : dates) {
+            long d = Math.abs(date.toEpochDay() - today);
+            if (d > distance) {
+                farthest = date;
+                distance = d;
+            }
+        }
+        return farthest;
+    }
+
+    /**
+     * Returns the partition of the restaurant. Restaurants without stored reservations get an
+     * empty partition on first use; the database is only read by the initial load.
+     */
+    private Partition partition(Long restaurantId) {
+        return partitions().computeIfAbsent(restaurantId, id -> new Partition(stamps.incrementAndGet()));
+    }
+
+    private Map<Long, Partition> partitions() {
+        Map<Long, Partition> current = partitions;
+        if (current == null) {
+            synchronized (this) {
+                if (partitions == null) {
+                    reload();
+                }
+                current = partitions;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Timelines, holds, cached day matrices and change versions of one restaurant.
+     *
+     * Dates without a stamp of their own have the base stamp: the stamp the partition was created
+     * with, or a newer one once a date stamp has been evicted.
+     */
+    private static final class Partition {
+
+        final Map<Long, TableTimeline> timelines = new ConcurrentHashMap<>();
+        final Map<Long, TableTimeline> holds = new ConcurrentHashMap<>();
+        final Map<LocalDate, DayOccupancy> dayCache = new ConcurrentHashMap<>();
+        final AtomicLong version = new AtomicLong();
+        final Map<LocalDate, Long> dateStamps = new ConcurrentHashMap<>();
+        volatile long baseStamp;
+
+        Partition(long createdStamp) {
+            this.baseStamp = createdStamp;
+        }
+
+        TableTimeline timeline(Long tableId) {
+            return timelines.computeIfAbsent(tableId, id -> new TableTimeline());
+        }
+
+        DayOccupancy buildDayOccupancy(LocalDate date, long[] tableIds, long buildVersion) {
+            LocalDateTime from = date.atStartOfDay();
+            LocalDateTime to = from.plusDays(1).plus(ReservationPolicy.DEFAULT_DURATION);
+            DayOccupancy occupancy = new DayOccupancy(date, tableIds.clone(), buildVersion);
+            for (int row = 0; row < tableIds.length; row++) {
+                int r = row;
+                TableTimeline timeline = timelines.get(tableIds[row]);
+                if (timeline != null) {
+                    timeline.forEachIntersecting(from, to, (start, end) -> occupancy.mark(r, start, end));
+                }
+                TableTimeline held = holds.get(tableIds[row]);
+                if (held != null) {
+                    held.forEachIntersecting(from, to, (start, end) -> occupancy.mark(r, start, end));
+                }
+            }
+            return occupancy;
+        }
+    }
+
+    /**
+     * Reserved intervals of a single table, sorted by start time.
+     *
+     * Only intervals starting after (requestedStart - longest reservation) can intersect
+     * the requested interval, so an overlap check is a short range scan of the sorted map.
+     */
+    static final class TableTimeline {
+
+        private final ConcurrentNavigableMap<LocalDateTime, LocalDateTime> intervals = new ConcurrentSkipListMap<>();
+        private volatile Duration longest = Duration.ZERO;
+
+        synchronized void add(LocalDateTime startTime, LocalDateTime endTime) {
+            intervals.merge(startTime, endTime, (a, b) -> a.isAfter(b) ? a : b);
+            Duration length = Duration.between(startTime, endTime);
+            if (length.compareTo(longest) > 0) {
+                longest = length;
+            }
+        }
+
+        synchronized boolean remove(LocalDateTime startTime, LocalDateTime endTime) {
+            return intervals.remove(startTime, endTime);
+        }
+
+        synchronized void removeStartingUpTo(LocalDateTime time) {
+            intervals.headMap(time, true).clear();
+        }
+
+        void copyStartingAfter(LocalDateTime time, TableTimeline target) {
+            intervals.tailMap(time, false).forEach(target::add);
+        }
+
+        boolean overlaps(LocalDateTime startTime, LocalDateTime endTime) {
+            for (LocalDateTime existingEnd : intervals.subMap(startTime.minus(longest), false, endTime, false).values()) {
+                if (existingEnd.isAfter(startTime)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        int countStartingIn(LocalDateTime from, LocalDateTime to) {
+            return intervals.subMap(from, true, to, false).size();
+        }
+
+        void forEachIntersecting(LocalDateTime startTime, LocalDateTime endTime, BiConsumer<LocalDateTime, LocalDateTime> action) {
+            intervals.subMap(startTime.minus(longest), false, endTime, false).forEach((existingStart, existingEnd) -> {
+                if (existingEnd.isAfter(startTime)) {
+                    action.accept(existingStart, existingEnd);
+                }
+            });
+        }
+    }
+}
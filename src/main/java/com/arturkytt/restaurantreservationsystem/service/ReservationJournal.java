@@ -0,0 +1,523 @@
+package com.arturkytt.restaurantreservationsystem.service;
+
+import com.arturkytt.restaurantreservationsystem.config.JournalProperties;
+import com.arturkytt.restaurantreservationsystem.domain.Reservation;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.zip.CRC32C;
+
+/**
+ * Write-ahead journal of single reservations, used when app.journal.enabled is true (see JournalProperties).
+ *
+ * In journaled mode ReservationService does not insert a reservation in its own transaction. After the
+ * in-memory conflict check it appends the reservation to this journal and acknowledges it as soon as
+ * the record is on disk; a background writer copies journaled reservations to the reservation table.
+ * The commit latency of the database is thereby replaced by an fsync of a local file, and many
+ * reservations share one database round trip.
+ *
+ * - The journal is a memory-mapped file: a 64-byte header with the sequence number of the last
+ *   reservation written to the database, followed by a ring of fixed 64-byte records
+ *   (sequence, id, restaurant, table, start, end, party size, CRC32C checksum)
+ * - Appends are serialized by a lock; durability is group committed: a thread waiting for its record
+ *   forces the file up to the newest record, so everything appended in the meantime becomes durable
+ *   with the same fsync, and the threads behind it find their records already covered
+ * - Ids are taken from reservation_seq in blocks of Reservation.ID_ALLOCATION_SIZE, like Hibernate does,
+ *   so journaled and directly inserted reservations never share an id
+ * - Every flushInterval the writer inserts up to batchSize pending records with one statement and then
+ *   advances the flushed sequence in the header; records are only overwritten after they were flushed,
+ *   and appends fail with "Reservation journal is full" when the database falls a whole ring behind
+ * - When the journal is opened, before the server accepts requests, pending records are put into
+ *   ReservationIndex, which keeps them across reloads; so reservations acknowledged before a crash
+ *   keep their slots taken in memory although they are not stored yet
+ * - On startup, after the schema initializer, pending records are written to the database, so
+ *   reservations acknowledged before a crash are not lost
+ *
+ * Records whose id is already stored are skipped, so replaying a record that was written just before
+ * a crash is a no-op; any other constraint violation still fails the insert. A journaled reservation
+ * is only checked against the in-memory ReservationIndex, so the journal requires a single application
+ * instance writing reservations. If the database nevertheless rejects a record (for example by
+ * reservation_no_overlap), the batch is retried record by record and each rejected record is moved to
+ * the reservation_journal_rejected table with the database's reason, counted in ReservationMetrics and
+ * logged as an error; only then is it marked as flushed. The reservation was already acknowledged, so
+ * those rows need to be resolved by hand.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@EnableConfigurationProperties(JournalProperties.class)
+@ConditionalOnProperty(prefix = "app.journal", name = "enabled", havingValue = "true")
+public class ReservationJournal implements CommandLineRunner {
+
+    /**
+     * Reservation as stored in one journal record.
+     */
+    public record Entry(
+            long seq,
+            long id,
+            long restaurantId,
+            long tableId,
+            LocalDateTime startTime,
+            LocalDateTime endTime,
+            int partySize
+    ) {}
+
+    /**
+     * Reservation to append: table, interval and party size.
+     */
+    public record Booking(Long tableId, LocalDateTime startTime, LocalDateTime endTime, int partySize) {}
+
+    static final int HEADER_SIZE = 64;
+    static final int RECORD_SIZE = 64;
+
+    private static final long MAGIC = 0x524553564a524e4cL; // "RESVJRNL"
+    private static final int FORMAT_VERSION = 1;
+    private static final int FLUSHED_SEQ_OFFSET = 16;
+    private static final int CHECKSUM_OFFSET = 52;
+
+    private static final String INSERT_RESERVATIONS = """
+            insert into reservation (id, restaurant_id, dining_table_id, start_time, end_time, party_size)
+            select * from unnest(?::bigint[], ?::bigint[], ?::bigint[], ?::timestamp[], ?::timestamp[], ?::int[])
+                as j (id, restaurant_id, dining_table_id, start_time, end_time, party_size)
+            where not exists (select 1 from reservation r where r.id = j.id and r.start_time = j.start_time)
+            """;
+
+    private static final String CREATE_REJECTED_TABLE = """
+            create table if not exists reservation_journal_rejected (
+                id bigint primary key,
+                restaurant_id bigint not null,
+                dining_table_id bigint not null,
+                start_time timestamp not null,
+                end_time timestamp not null,
+                party_size integer not null,
+                reason text,
+                rejected_at timestamp not null default now()
+            )
+            """;
+
+    private static final String INSERT_REJECTED = """
+            insert into reservation_journal_rejected (id, restaurant_id, dining_table_id, start_time, end_time, party_size, reason)
+            values (?, ?, ?, ?, ?, ?, ?)
+            on conflict (id) do nothing
+            """;
+
+    private static final Logger log = LoggerFactory.getLogger(ReservationJournal.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ReservationMetrics metrics;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final long capacity;
+
+    private final Object appendLock = new Object();
+    private final Object syncLock = new Object();
+    private final Object flushLock = new Object();
+    private final Object idLock = new Object();
+
+    // Last record completely written to the mapping; guarded by appendLock for writes.
+    private volatile long lastSeq;
+    // Last record known to be on disk.
+    private volatile long syncedSeq;
+    // Last record written to the database; its slot and all earlier ones may be reused.
+    private volatile long flushedSeq;
+
+    // Current id block: nextId..lastId; guarded by idLock.
+    private long nextId = 1;
+    private long lastId;
+
+    private volatile Thread writer;
+
+    public ReservationJournal(JdbcTemplate jdbcTemplate, ReservationMetrics metrics, ReservationIndex reservationIndex,
+                              JournalProperties properties) throws IOException {
+        this.jdbcTemplate = jdbcTemplate;
+        this.metrics = metrics;
+        this.batchSize = properties.batchSize();
+        this.flushIntervalMillis = properties.flushInterval().toMillis();
+
+        Path path = Path.of(properties.path()).toAbsolutePath();
+        boolean created = !Files.exists(path);
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = created ? properties.size().toBytes() : channel.size();
+        this.capacity = (size - HEADER_SIZE) / RECORD_SIZE;
+        if (capacity < 1) {
+            channel.close();
+            throw new IllegalStateException("Reservation journal " + path + " is too small");
+        }
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + capacity * RECORD_SIZE);
+
+        if (created) {
+            buffer.putLong(0, MAGIC);
+            buffer.putInt(8, FORMAT_VERSION);
+            buffer.putLong(FLUSHED_SEQ_OFFSET, 0);
+            buffer.force();
+        } else if (buffer.getLong(0) != MAGIC || buffer.getInt(8) != FORMAT_VERSION) {
+            channel.close();
+            throw new IllegalStateException("File " + path + " is not a reservation journal");
+        }
+        this.flushedSeq = buffer.getLong(FLUSHED_SEQ_OFFSET);
+        this.lastSeq = recover();
+        this.syncedSeq = lastSeq;
+        for (long seq = flushedSeq + 1; seq <= lastSeq; seq++) {
+            Entry entry = read(seq);
+            reservationIndex.add(entry.restaurantId(), entry.tableId(), entry.startTime(), entry.endTime());
+        }
+        log.info("Opened reservation journal {} ({} records, {} pending)", path, capacity, lastSeq - flushedSeq);
+    }
+
+    /**
+     * Creates the reservation_journal_rejected table if needed, writes the reservations left in the
+     * journal to the database and starts the background writer.
+     */
+    @Override
+    public void run(String... args) {
+        jdbcTemplate.execute(CREATE_REJECTED_TABLE);
+        long pending = lastSeq - flushedSeq;
+        if (pending > 0) {
+            long flushed = flushAll();
+            log.info("Replayed {} journaled reservations", flushed);
+        }
+        Thread thread = Thread.ofPlatform().name("reservation-journal-writer").daemon().unstarted(this::writeLoop);
+        writer = thread;
+        thread.start();
+    }
+
+    /**
+     * Appends a reservation and returns once the record is on disk.
+     *
+     * @param restaurantId restaurant the table belongs to
+     * @param tableId reserved table
+     * @param start reservation start
+     * @param end reservation end
+     * @param partySize party size
+     * @return id of the reservation
+     * @throws IllegalStateException if the journal is full because the database fell behind
+     */
+    public Long append(Long restaurantId, Long tableId, LocalDateTime start, LocalDateTime end, int partySize) {
+        return appendAll(restaurantId, List.of(new Booking(tableId, start, end, partySize))).getFirst();
+    }
+
+    /**
+     * Appends several reservations of one restaurant and returns once all records are on disk,
+     * with a single fsync. Either all reservations are appended or none.
+     *
+     * @param restaurantId restaurant the tables belong to
+     * @param bookings reservations to append
+     * @return ids of the reservations, in the order of bookings
+     * @throws IllegalStateException if the journal has no room for all records because the database fell behind
+     */
+    public List<Long> appendAll(Long restaurantId, List<Booking> bookings) {
+        List<Long> ids = new ArrayList<>(bookings.size());
+        for (int i = 0; i < bookings.size(); i++) {
+            ids.add(nextId());
+        }
+        long seq;
+        synchronized (appendLock) {
+            seq = lastSeq;
+            if (seq + bookings.size() - flushedSeq > capacity) {
+                throw new IllegalStateException("Reservation journal is full");
+            }
+            for (int i = 0; i < bookings.size(); i++) {
+                Booking b = bookings.get(i);
+                write(new Entry(++seq, ids.get(i), restaurantId, b.tableId(), b.startTime(), b.endTime(), b.partySize()));
+            }
+            lastSeq = seq;
+        }
+        awaitDurable(seq);
+        return ids;
+    }
+
+    /**
+     * Returns the records that are not yet written to the database, oldest first.
+     *
+     * @return pending records
+     */
+    public List<Entry> pending() {
+        List<Entry> entries = new ArrayList<>();
+        for (long seq = flushedSeq + 1; seq <= lastSeq; seq++) {
+            entries.add(read(seq));
+        }
+        return entries;
+    }
+
+    /**
+     * Writes up to batchSize pending records to the database and marks them as flushed.
+     *
+     * Records the database rejects are moved to reservation_journal_rejected first.
+     *
+     * @return number of records flushed
+     * @throws DataAccessException if the database cannot be reached; the records stay pending
+     */
+    public int flush() {
+        synchronized (flushLock) {
+            long from = flushedSeq + 1;
+            long to = Math.min(lastSeq, flushedSeq + batchSize);
+            if (from > to) {
+                return 0;
+            }
+            List<Entry> entries = new ArrayList<>((int) (to - from + 1));
+            for (long seq = from; seq <= to; seq++) {
+                entries.add(read(seq));
+            }
+
+            int inserted = 0;
+            try {
+                inserted = insert(entries);
+            } catch (DataIntegrityViolationException e) {
+                // One statement inserts the whole batch, so find the offending records one by one.
+                for (Entry entry : entries) {
+                    try {
+                        inserted += insert(List.of(entry));
+                    } catch (DataIntegrityViolationException rejected) {
+                        reject(entry, rejected.getMostSpecificCause().getMessage());
+                        inserted++;
+                    }
+                }
+            }
+            if (inserted < entries.size()) {
+                log.info("Skipped {} journaled reservations that were already stored", entries.size() - inserted);
+            }
+
+            buffer.putLong(FLUSHED_SEQ_OFFSET, to);
+            buffer.force(0, HEADER_SIZE);
+            flushedSeq = to;
+            return entries.size();
+        }
+    }
+
+    /**
+     * Stops the background writer, writes all pending records to the database and closes the file.
+     */
+    @PreDestroy
+    public void close() throws IOException {
+        Thread thread = writer;
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join(flushIntervalMillis * 10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            flushAll();
+        } catch (DataAccessException e) {
+            log.warn("{} journaled reservations are written on the next start: {}",
+                    lastSeq - flushedSeq, e.getMostSpecificCause().getMessage());
+        }
+        channel.close();
+    }
+
+    private void writeLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                if (flush() == batchSize) {
+                    continue; // more pending, keep going without waiting
+                }
+            } catch (DataAccessException e) {
+                log.warn("Could not write journaled reservations: {}", e.getMostSpecificCause().getMessage());
+            }
+            try {
+                Thread.sleep(flushIntervalMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private long flushAll() {
+        long total = 0;
+        for (int flushed = flush(); flushed > 0; flushed = flush()) {
+            total += flushed;
+        }
+        return total;
+    }
+
+    /**
+     * Forces the mapping unless another thread already made the record durable. Records appended
+     * while a force is running are covered by the next one, which serves all threads waiting for it.
+     */
+    private void awaitDurable(long seq) {
+        if (syncedSeq >= seq) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (syncedSeq >= seq) {
+                return;
+            }
+            long target = lastSeq;
+            buffer.force();
+            syncedSeq = target;
+        }
+    }
+
+    private long nextId() {
+        synchronized (idLock) {
+            if (nextId > lastId) {
+                Long value = jdbcTemplate.queryForObject("select nextval('reservation_seq')", Long.class);
+                lastId = value;
+                nextId = value - Reservation.ID_ALLOCATION_SIZE + 1;
+            }
+            return nextId++;
+        }
+    }
+
+    /**
+     * Keeps a record the database refused in reservation_journal_rejected, so it can be resolved by hand.
+     */
+    private void reject(Entry entry, String reason) {
+        jdbcTemplate.update(INSERT_REJECTED, entry.id(), entry.restaurantId(), entry.tableId(),
+                Timestamp.valueOf(entry.startTime()), Timestamp.valueOf(entry.endTime()), entry.partySize(), reason);
+        metrics.recordJournalRejection();
+        log.error("Journaled reservation {} (table {}, {}) was rejected by the database and moved to reservation_journal_rejected: {}",
+                entry.id(), entry.tableId(), entry.startTime(), reason);
+    }
+
+    private int insert(List<Entry> entries) {
+        return jdbcTemplate.execute((ConnectionCallback<Integer>) con -> {
+            int n = entries.size();
+            Long[] ids = new Long[n];
+            Long[] restaurants = new Long[n];
+            Long[] tables = new Long[n];
+            Timestamp[] starts = new Timestamp[n];
+            Timestamp[] ends = new Timestamp[n];
+            Integer[] partySizes = new Integer[n];
+            for (int i = 0; i < n; i++) {
+                Entry entry = entries.get(i);
+                ids[i] = entry.id();
+                restaurants[i] = entry.restaurantId();
+                tables[i] = entry.tableId();
+                starts[i] = Timestamp.valueOf(entry.startTime());
+                ends[i] = Timestamp.valueOf(entry.endTime());
+                partySizes[i] = entry.partySize();
+            }
+            Array[] arrays = {
+                    con.createArrayOf("bigint", ids),
+                    con.createArrayOf("bigint", restaurants),
+                    con.createArrayOf("bigint", tables),
+                    con.createArrayOf("timestamp", starts),
+                    con.createArrayOf("timestamp", ends),
+                    con.createArrayOf("integer", partySizes)
+            };
+            try (PreparedStatement ps = con.prepareStatement(INSERT_RESERVATIONS)) {
+                for (int i = 0; i < arrays.length; i++) {
+                    ps.setArray(i + 1, arrays[i]);
+                }
+                return ps.executeUpdate();
+            } finally {
+                for (Array array : arrays) {
+                    array.free();
+                }
+            }
+        });
+    }
+
+    /**
+     * Finds the pending records: valid records continuing the flushed sequence without a gap.
+     * Everything else in the ring is cleared, so records that were never acknowledged (torn or
+     * written after a torn one) cannot reappear once their slots are reached again.
+     */
+    private long recover() {
+        TreeMap<Long, Long> slotsBySeq = new TreeMap<>();
+        for (long slot = 0; slot < capacity; slot++) {
+            Entry entry = readSlot(slot);
+            if (entry != null && entry.seq() > flushedSeq) {
+                slotsBySeq.put(entry.seq(), slot);
+            }
+        }
+        long last = flushedSeq;
+        while (slotsBySeq.remove(last + 1) != null) {
+            last++;
+        }
+        if (!slotsBySeq.isEmpty()) {
+            for (long slot : slotsBySeq.values()) {
+                long offset = offsetOfSlot(slot);
+                for (int i = 0; i < RECORD_SIZE; i += Long.BYTES) {
+                    buffer.putLong((int) (offset + i), 0);
+                }
+            }
+            buffer.force();
+            log.warn("Discarded {} unacknowledged records of the reservation journal", slotsBySeq.size());
+        }
+        return last;
+    }
+
+    private void write(Entry entry) {
+        int offset = (int) offsetOfSlot((entry.seq() - 1) % capacity);
+        buffer.putLong(offset, entry.seq());
+        buffer.putLong(offset + 8, entry.id());
+        buffer.putLong(offset + 16, entry.restaurantId());
+        buffer.putLong(offset + 24, entry.tableId());
+        buffer.putLong(offset + 32, entry.startTime().toEpochSecond(ZoneOffset.UTC));
+        buffer.putLong(offset + 40, entry.endTime().toEpochSecond(ZoneOffset.UTC));
+        buffer.putInt(offset + 48, entry.partySize());
+        buffer.putInt(offset + CHECKSUM_OFFSET, checksum(offset));
+    }
+
+    private Entry read(long seq) {
+        Entry entry = readSlot((seq - 1) % capacity);
+        if (entry == null || entry.seq() != seq) {
+            throw new IllegalStateException("Reservation journal record " + seq + " is damaged");
+        }
+        return entry;
+    }
+
+    /**
+     * Returns the record stored in the slot, or null if the slot is empty or its checksum does not match.
+     */
+    private Entry readSlot(long slot) {
+        int offset = (int) offsetOfSlot(slot);
+        long seq = buffer.getLong(offset);
+        if (seq <= 0 || buffer.getInt(offset + CHECKSUM_OFFSET) != checksum(offset)) {
+            return null;
+        }
+        return new Entry(
+                seq,
+                buffer.getLong(offset + 8),
+                buffer.getLong(offset + 16),
+                buffer.getLong(offset + 24),
+                LocalDateTime.ofEpochSecond(buffer.getLong(offset + 32), 0, ZoneOffset.UTC),
+                LocalDateTime.ofEpochSecond(buffer.getLong(offset + 40), 0, ZoneOffset.UTC),
+                buffer.getInt(offset + 48));
+    }
+
+    private int checksum(int offset) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset, CHECKSUM_OFFSET));
+        return (int) crc.getValue();
+    }
+
+    private static long offsetOfSlot(long slot) {
+        return HEADER_SIZE + slot * RECORD_SIZE;
+    }
+}
@@ -0,0 +1,136 @@
+package com.arturkytt.restaurantreservationsystem.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Micrometer meters of the reservation hot paths, exported through Actuator (e.g. /actuator/prometheus).
+ *
+ * - restaurant.availability, restaurant.recommendation, restaurant.floor, restaurant.reservation.create:
+ *   timers (with percentile histograms) around the service calls
+ * - restaurant.reservation.overlap.rows: rows returned by overlap queries
+ * - restaurant.reservation.conflicts: rejected bookings, tagged with the check that found the conflict
+ *   (memory, database, constraint or batch)
+ * - restaurant.reservation.capacity.rejections: requests with a party larger than the table
+ * - restaurant.reservation.idempotent.replays: retries answered with the reservation of an earlier
+ *   request with the same Idempotency-Key
+ * - restaurant.reservation.journal.rejected: journaled reservations the database refused, moved to
+ *   reservation_journal_rejected by ReservationJournal
+ * - restaurant.reservations.per.day: reservations starting today and on the following days,
+ *   tagged with the day offset; read from the in-memory ReservationIndex when scraped
+ */
+@Component
+public class ReservationMetrics {
+
+    /**
+     * Number of days (starting today) with a reservations-per-day gauge.
+     */
+    static final int GAUGE_DAYS = 7;
+
+    private final MeterRegistry registry;
+    private final Timer availabilityTimer;
+    private final Timer recommendationTimer;
+    private final Timer floorTimer;
+    private final Timer createTimer;
+    private final DistributionSummary overlapRows;
+    private final Counter capacityRejections;
+    private final Counter idempotentReplays;
+    private final Counter journalRejections;
+
+    public ReservationMetrics(MeterRegistry registry, ReservationIndex reservationIndex) {
+        this.registry = registry;
+        this.availabilityTimer = timer("restaurant.availability", "Availability lookups");
+        this.recommendationTimer = timer("restaurant.recommendation", "Table recommendations");
+        this.floorTimer = timer("restaurant.floor", "Combined floor views (tables, occupancy and recommendation)");
+        this.createTimer = timer("restaurant.reservation.create", "Single reservation creation, including lock wait");
+        this.overlapRows = DistributionSummary.builder("restaurant.reservation.overlap.rows")
+                .description("Rows returned by reservation overlap queries")
+                .register(registry);
+        this.capacityRejections = Counter.builder("restaurant.reservation.capacity.rejections")
+                .description("Reservation requests rejected because the party exceeds the table capacity")
+                .register(registry);
+        this.idempotentReplays = Counter.builder("restaurant.reservation.idempotent.replays")
+                .description("Reservation requests answered with the result of an earlier request with the same Idempotency-Key")
+                .register(registry);
+        this.journalRejections = Counter.builder("restaurant.reservation.journal.rejected")
+                .description("Journaled reservations rejected by the database after they were acknowledged")
+                .register(registry);
+
+        for (int offset = 0; offset < GAUGE_DAYS; offset++) {
+            int days = offset;
+            Gauge.builder("restaurant.reservations.per.day",
+                            reservationIndex, index -> index.countStartingOn(LocalDate.now().plusDays(days)))
+                    .description("Reservations starting on the day, relative to today")
+                    .tag("day", "+" + offset)
+                    .register(registry);
+        }
+    }
+
+    public Timer availabilityTimer() {
+        return availabilityTimer;
+    }
+
+    public Timer recommendationTimer() {
+        return recommendationTimer;
+    }
+
+    public Timer floorTimer() {
+        return floorTimer;
+    }
+
+    public Timer createTimer() {
+        return createTimer;
+    }
+
+    /**
+     * Records the number of rows returned by an overlap query.
+     *
+     * @param rows returned rows
+     */
+    public void recordOverlapRows(int rows) {
+        overlapRows.record(rows);
+    }
+
+    /**
+     * Counts a booking rejected because the table is already reserved.
+     *
+     * @param check the check that detected the conflict: memory, database, constraint or batch
+     */
+    public void recordConflict(String check) {
+        registry.counter("restaurant.reservation.conflicts", "check", check).increment();
+    }
+
+    /**
+     * Counts a request rejected because the party exceeds the table capacity.
+     */
+    public void recordCapacityRejection() {
+        capacityRejections.increment();
+    }
+
+    /**
+     * Counts a retry answered with the reservation of an earlier request with the same key.
+     */
+    public void recordIdempotentReplay() {
+        idempotentReplays.increment();
+    }
+
+    /**
+     * Counts a journaled reservation the database refused to store.
+     */
+    public void recordJournalRejection() {
+        journalRejections.increment();
+    }
+
+    private Timer timer(String name, String description) {
+        return Timer.builder(name)
+                .description(description)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+}
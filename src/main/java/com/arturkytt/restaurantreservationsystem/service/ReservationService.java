@@ -1,73 +1,512 @@
 package com.arturkytt.restaurantreservationsystem.service;
 
 import com.arturkytt.restaurantreservationsystem.config.ReservationPolicy;
-import com.arturkytt.restaurantreservationsystem.domain.DiningTable;
+import com.arturkytt.restaurantreservationsystem.config.ReservationSchemaInitializer;
 import com.arturkytt.restaurantreservationsystem.domain.Reservation;
+import com.arturkytt.restaurantreservationsystem.dto.BatchReservationResultDto;
+import com.arturkytt.restaurantreservationsystem.dto.BatchReservationResultDto.Status;
 import com.arturkytt.restaurantreservationsystem.dto.CreateReservationRequestDto;
 import com.arturkytt.restaurantreservationsystem.repository.DiningTableRepository;
 import com.arturkytt.restaurantreservationsystem.repository.ReservationRepository;
+import com.arturkytt.restaurantreservationsystem.repository.ReservationSlot;
+import com.arturkytt.restaurantreservationsystem.repository.RestaurantRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.*;
 
 /**
  * Service responsible for creating reservations and enforcing core reservation rules.
  *
  * This service validates:
- * - the table exists
+ * - the table exists in the requested restaurant
  * - party size does not exceed table capacity
  * - the table is not already reserved during the requested time window
  *
+ * Table and capacity checks use the cached floor plan snapshot. Conflicts are first checked
+ * against the in-memory ReservationIndex while holding the BookingLocks stripes of the table and
+ * of every date the reservation touches, so concurrent requests for the same table fail fast
+ * without opening a transaction.
+ * Inside the transaction a table-scoped existence query and the database exclusion constraint
+ * remain the authoritative checks; a constraint violation is reported with the same
+ * "Table already reserved" error.
+ *
  * The reservation end time is derived using ReservationPolicy.DEFAULT_DURATION.
+ * After a reservation is stored a ReservationCreatedEvent is published so in-memory
+ * read structures (for example ReservationIndex) can be updated.
+ *
+ * Durations, conflicts and capacity rejections are recorded in ReservationMetrics.
+ *
+ * Single reservations may carry an idempotency key (see IdempotencyStore). A retry with a known
+ * key returns the reservation created by the first attempt without any overlap check or insert;
+ * the key is stored in the same transaction as the reservation.
+ *
+ * A table hold (see HoldService) is converted into a reservation by confirmHold: the hold already
+ * guarantees the slot is free in memory, so confirming only runs the transactional insert.
+ *
+ * With app.journal.enabled single reservations and confirmed holds are not inserted directly: after
+ * the in-memory conflict check they are appended to the ReservationJournal and acknowledged once the
+ * journal record is on disk; the journal writes them to the database in the background. The in-memory
+ * check is then the only conflict check before the reservation is acknowledged, and idempotency keys
+ * are only remembered in memory. Batch items that pass the in-memory check are journaled the same way.
+ *
+ * Batches are validated with one overlap query for all involved tables, checked for conflicts
+ * between their own items and against the in-memory index under the booking locks of all items,
+ * and inserted in one transaction using JDBC batching after the locks are released.
  */
 @Service
 public class ReservationService {
 
+    /**
+     * Maximum number of items accepted by createReservations.
+     */
+    public static final int MAX_BATCH_SIZE = 500;
+
+    private final FloorPlanCache floorPlanCache;
+    private final RestaurantRepository restaurantRepository;
     private final DiningTableRepository tableRepository;
     private final ReservationRepository reservationRepository;
+    private final ReservationIndex reservationIndex;
+    private final BookingLocks bookingLocks;
+    private final IdempotencyStore idempotencyStore;
+    private final HoldService holdService;
+    private final ReservationJournal journal;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ReservationMetrics metrics;
 
-    public ReservationService(DiningTableRepository tableRepository,
-                              ReservationRepository reservationRepository) {
+    public ReservationService(FloorPlanCache floorPlanCache,
+                              RestaurantRepository restaurantRepository,
+                              DiningTableRepository tableRepository,
+                              ReservationRepository reservationRepository,
+                              ReservationIndex reservationIndex,
+                              BookingLocks bookingLocks,
+                              IdempotencyStore idempotencyStore,
+                              HoldService holdService,
+                              Optional<ReservationJournal> journal,
+                              TransactionTemplate transactionTemplate,
+                              ApplicationEventPublisher eventPublisher,
+                              ReservationMetrics metrics) {
+        this.floorPlanCache = floorPlanCache;
+        this.restaurantRepository = restaurantRepository;
         this.tableRepository = tableRepository;
         this.reservationRepository = reservationRepository;
+        this.reservationIndex = reservationIndex;
+        this.bookingLocks = bookingLocks;
+        this.idempotencyStore = idempotencyStore;
+        this.holdService = holdService;
+        this.journal = journal.orElse(null);
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.metrics = metrics;
     }
 
     /**
      * Creates a new reservation based on the provided request.
      *
+     * @param restaurantId restaurant the table belongs to
+     * @param request client request containing table id, start date/time and party size
+     * @throws IllegalArgumentException if the restaurant or table does not exist or party size exceeds capacity
+     * @return id of the created reservation
+     * @throws IllegalStateException if the table is already reserved for the requested time window
+     */
+    public Long createReservation(Long restaurantId, CreateReservationRequestDto request) {
+        return createReservation(restaurantId, request, null);
+    }
+
+    /**
+     * Creates a new reservation, at most once per idempotency key.
+     *
+     * If a reservation was already created with the key, its id is returned and nothing is written.
+     *
+     * @param restaurantId restaurant the table belongs to
      * @param request client request containing table id, start date/time and party size
-     * @throws IllegalArgumentException if the table does not exist or party size exceeds capacity
+     * @param idempotencyKey optional client-generated key identifying the request across retries
+     * @return id of the created (or previously created) reservation
+     * @throws IllegalArgumentException if the restaurant or table does not exist, party size exceeds capacity,
+     *         or the key was already used for a different request
      * @throws IllegalStateException if the table is already reserved for the requested time window
      */
-    public void createReservation(CreateReservationRequestDto request) {
+    public Long createReservation(Long restaurantId, CreateReservationRequestDto request, String idempotencyKey) {
+        String key = IdempotencyStore.checkKey(idempotencyKey);
+        if (key != null) {
+            // Retries of a completed request are answered from memory, before any other work.
+            Long previous = idempotencyStore.cached(key, fingerprint(restaurantId, request));
+            if (previous != null) {
+                metrics.recordIdempotentReplay();
+                return previous;
+            }
+        }
+        return metrics.createTimer().record(() -> create(restaurantId, request, key));
+    }
 
-        DiningTable table = tableRepository.findById(request.tableId())
-                .orElseThrow(() -> new IllegalArgumentException("Table not found"));
+    private Long create(Long restaurantId, CreateReservationRequestDto request, String key) {
+        FloorPlanSnapshot floorPlan = floorPlanCache.current(restaurantId);
+        int row = floorPlan.rowOf(request.tableId());
+        if (row < 0) {
+            throw new IllegalArgumentException("Table not found");
+        }
 
-        if (request.partySize() > table.getCapacity()) {
+        if (request.partySize() > floorPlan.table(row).capacity()) {
+            metrics.recordCapacityRejection();
             throw new IllegalArgumentException("Party size exceeds table capacity");
         }
 
+        Long tableId = request.tableId();
         LocalDateTime start = LocalDateTime.of(request.date(), request.time());
         LocalDateTime end = start.plus(ReservationPolicy.DEFAULT_DURATION);
 
-        List<Reservation> overlapping =
-                reservationRepository.findOverlapping(start, end);
+        IdempotencyStore.Request fingerprint = fingerprint(restaurantId, request);
 
-        boolean occupied = overlapping.stream()
-                .anyMatch(r -> r.getTable().getId().equals(table.getId()));
+        return bookingLocks.withLock(restaurantId, tableId, start, end, () -> {
+            // A concurrent retry may have completed while this one waited for the lock,
+            // or an earlier attempt was handled by another instance or before a restart.
+            if (key != null) {
+                Long previous = idempotencyStore.stored(key, fingerprint);
+                if (previous != null) {
+                    metrics.recordIdempotentReplay();
+                    return previous;
+                }
+            }
 
-        if (occupied) {
+            // Fast path: conflicts already known in memory never reach the database.
+            if (reservationIndex.isOccupied(restaurantId, tableId, start, end)) {
+                bookingLocks.recordRejected(restaurantId, tableId);
+                metrics.recordConflict("memory");
+                throw new IllegalStateException("Table already reserved at that time");
+            }
+
+            Long reservationId;
+            try {
+                reservationId = store(restaurantId, tableId, start, end, request.partySize(), key, fingerprint);
+            } catch (IllegalStateException | DataIntegrityViolationException e) {
+                // Another instance committed the same key first: its reservation is the result.
+                Long previous = key == null ? null : idempotencyStore.stored(key, fingerprint);
+                if (previous == null) {
+                    throw e;
+                }
+                metrics.recordIdempotentReplay();
+                return previous;
+            }
+            if (key != null) {
+                idempotencyStore.remember(key, fingerprint, reservationId);
+            }
+            return reservationId;
+        });
+    }
+
+    /**
+     * Converts an active hold into a reservation of the held table and slot and releases the hold.
+     *
+     * The in-memory conflict check is skipped (the hold itself occupies the slot); the database
+     * existence check and exclusion constraint still apply.
+     *
+     * @param restaurantId restaurant the hold belongs to
+     * @param holdId hold id
+     * @return id of the created reservation
+     * @throws IllegalArgumentException if the hold does not exist or has expired
+     * @throws IllegalStateException if the hold expired while waiting for the lock, or the slot was
+     *         booked elsewhere (for example through another instance)
+     */
+    public Long confirmHold(Long restaurantId, String holdId) {
+        return metrics.createTimer().record(() -> {
+            HoldService.Hold hold = holdService.get(restaurantId, holdId);
+            return bookingLocks.withLock(restaurantId, hold.tableId(), hold.startTime(), hold.endTime(), () -> {
+                if (!holdService.isActive(hold)) {
+                    throw new IllegalStateException("Hold expired");
+                }
+                Long reservationId = store(
+                        restaurantId, hold.tableId(), hold.startTime(), hold.endTime(), hold.partySize(), null, null);
+                holdService.release(hold);
+                return reservationId;
+            });
+        });
+    }
+
+    /**
+     * Creates several reservations at once and returns one result per item, in request order.
+     *
+     * Items are validated like createReservation. Overlaps with stored reservations are detected
+     * with a single query for all tables of the batch, and items of the same table that overlap
+     * each other are rejected in request order. The remaining items are then checked against the
+     * in-memory ReservationIndex (holds and bookings made since the query) while holding the
+     * BookingLocks stripes of all of them. With journaled writes they are appended to the
+     * ReservationJournal (one fsync) before the locks are released. Otherwise they are marked in
+     * the index with placeholder holds and the locks are released before the items are inserted
+     * in one transaction, so a large batch does not keep single bookings of the restaurant waiting
+     * for its commit; the placeholders are removed once the reservations are in the index.
+     * If that transaction hits the exclusion constraint (a booking through another instance
+     * slipped in), the items are retried one by one.
+     *
+     * @param restaurantId restaurant all tables of the batch belong to
+     * @param requests reservation requests
+     * @return per-item results
+     * @throws IllegalArgumentException if the batch is larger than MAX_BATCH_SIZE or the restaurant does not exist
+     */
+    public List<BatchReservationResultDto> createReservations(Long restaurantId, List<CreateReservationRequestDto> requests) {
+        if (requests.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Batch size exceeds " + MAX_BATCH_SIZE);
+        }
+        FloorPlanSnapshot floorPlan = floorPlanCache.current(restaurantId);
+        BatchReservationResultDto[] results = new BatchReservationResultDto[requests.size()];
+        List<Integer> valid = new ArrayList<>();
+
+        // 1. Validate each item against the floor plan.
+        for (int i = 0; i < requests.size(); i++) {
+            CreateReservationRequestDto r = requests.get(i);
+            int row = r.tableId() == null ? -1 : floorPlan.rowOf(r.tableId());
+            if (r.date() == null || r.time() == null || r.partySize() < 1) {
+                results[i] = rejected(i, Status.INVALID, "Date, time and a positive party size are required");
+            } else if (row < 0) {
+                results[i] = rejected(i, Status.INVALID, "Table not found");
+            } else if (r.partySize() > floorPlan.table(row).capacity()) {
+                metrics.recordCapacityRejection();
+                results[i] = rejected(i, Status.INVALID, "Party size exceeds table capacity");
+            } else {
+                valid.add(i);
+            }
+        }
+        if (valid.isEmpty()) {
+            return Arrays.asList(results);
+        }
+
+        // 2. One query for stored reservations of all involved tables over the batch time range.
+        Set<Long> tableIds = new HashSet<>();
+        LocalDateTime rangeStart = null;
+        LocalDateTime rangeEnd = null;
+        for (int i : valid) {
+            LocalDateTime start = startOf(requests.get(i));
+            LocalDateTime end = start.plus(ReservationPolicy.DEFAULT_DURATION);
+            tableIds.add(requests.get(i).tableId());
+            rangeStart = rangeStart == null || start.isBefore(rangeStart) ? start : rangeStart;
+            rangeEnd = rangeEnd == null || end.isAfter(rangeEnd) ? end : rangeEnd;
+        }
+        Map<Long, List<ReservationSlot>> taken = new HashMap<>();
+        List<ReservationSlot> overlapping = reservationRepository.findOverlappingForTables(restaurantId, tableIds, rangeStart, rangeEnd);
+        metrics.recordOverlapRows(overlapping.size());
+        for (ReservationSlot existing : overlapping) {
+            taken.computeIfAbsent(existing.tableId(), id -> new ArrayList<>()).add(existing);
+        }
+
+        // 3. Check each item against stored reservations and earlier accepted items of the batch.
+        List<Integer> accepted = new ArrayList<>();
+        Map<Long, List<Integer>> acceptedByTable = new HashMap<>();
+        for (int i : valid) {
+            CreateReservationRequestDto r = requests.get(i);
+            LocalDateTime start = startOf(r);
+            LocalDateTime end = start.plus(ReservationPolicy.DEFAULT_DURATION);
+
+            boolean stored = taken.getOrDefault(r.tableId(), List.of()).stream()
+                    .anyMatch(t -> t.startTime().isBefore(end) && t.endTime().isAfter(start));
+            if (stored) {
+                metrics.recordConflict("batch");
+                results[i] = rejected(i, Status.CONFLICT, "Table already reserved at that time");
+                continue;
+            }
+            Integer clash = acceptedByTable.getOrDefault(r.tableId(), List.of()).stream()
+                    .filter(j -> {
+                        LocalDateTime otherStart = startOf(requests.get(j));
+                        return otherStart.isBefore(end) && otherStart.plus(ReservationPolicy.DEFAULT_DURATION).isAfter(start);
+                    })
+                    .findFirst()
+                    .orElse(null);
+            if (clash != null) {
+                metrics.recordConflict("batch");
+                results[i] = rejected(i, Status.CONFLICT, "Overlaps item " + clash + " of the same batch");
+                continue;
+            }
+            accepted.add(i);
+            acceptedByTable.computeIfAbsent(r.tableId(), id -> new ArrayList<>()).add(i);
+        }
+
+        // 4. Under the booking locks of all accepted items, reject items whose slot is taken in memory
+        //    (a hold, or a booking made since the query). The rest is either journaled right there or
+        //    marked in the index with placeholder holds, which keep single bookings and holds off the
+        //    slots while the batch is inserted after the locks are released.
+        List<BookingLocks.Slot> slots = new ArrayList<>(accepted.size());
+        for (int i : accepted) {
+            LocalDateTime start = startOf(requests.get(i));
+            slots.add(new BookingLocks.Slot(requests.get(i).tableId(), start, start.plus(ReservationPolicy.DEFAULT_DURATION)));
+        }
+        List<Integer> free = new ArrayList<>(accepted.size());
+        List<BookingLocks.Slot> placeholders = new ArrayList<>(accepted.size());
+        bookingLocks.withLocks(restaurantId, slots, () -> {
+            for (int k = 0; k < accepted.size(); k++) {
+                BookingLocks.Slot slot = slots.get(k);
+                int i = accepted.get(k);
+                if (reservationIndex.isOccupied(restaurantId, slot.tableId(), slot.startTime(), slot.endTime())) {
+                    bookingLocks.recordRejected(restaurantId, slot.tableId());
+                    metrics.recordConflict("memory");
+                    results[i] = rejected(i, Status.CONFLICT, "Table already reserved at that time");
+                } else {
+                    free.add(i);
+                    placeholders.add(slot);
+                }
+            }
+            if (journal != null && placeholders.stream().allMatch(slot -> reservationIndex.covers(slot.startTime()))) {
+                journalAll(restaurantId, requests, free, placeholders, results);
+                placeholders.clear();
+            } else {
+                placeholders.forEach(slot -> reservationIndex.addHold(restaurantId, slot.tableId(), slot.startTime(), slot.endTime()));
+            }
+            return null;
+        });
+        if (placeholders.isEmpty()) {
+            return Arrays.asList(results);
+        }
+
+        try {
+            List<Reservation> saved = transactionTemplate.execute(status -> insertAll(restaurantId, requests, free));
+            for (int k = 0; k < free.size(); k++) {
+                int i = free.get(k);
+                results[i] = new BatchReservationResultDto(i, Status.CREATED, saved.get(k).getId(), null);
+            }
+        } catch (DataIntegrityViolationException e) {
+            if (!isOverlapViolation(e)) {
+                throw e;
+            }
+            // Retried one by one once the placeholders are gone; each item takes its own locks.
+            placeholders.forEach(slot -> reservationIndex.removeHold(restaurantId, slot.tableId(), slot.startTime(), slot.endTime()));
+            placeholders.clear();
+            for (int i : free) {
+                try {
+                    results[i] = new BatchReservationResultDto(i, Status.CREATED, createReservation(restaurantId, requests.get(i)), null);
+                } catch (IllegalStateException conflict) {
+                    results[i] = rejected(i, Status.CONFLICT, conflict.getMessage());
+                }
+            }
+        } finally {
+            // The committed reservations are in the index by now (ReservationCreatedEvent after commit).
+            placeholders.forEach(slot -> reservationIndex.removeHold(restaurantId, slot.tableId(), slot.startTime(), slot.endTime()));
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Appends the given batch items to the journal with one fsync and publishes one event per reservation.
+     * Called under the booking locks of the items, so the index is updated before they are released.
+     */
+    private void journalAll(Long restaurantId, List<CreateReservationRequestDto> requests, List<Integer> items,
+                            List<BookingLocks.Slot> slots, BatchReservationResultDto[] results) {
+        List<ReservationJournal.Booking> bookings = new ArrayList<>(items.size());
+        for (int k = 0; k < items.size(); k++) {
+            BookingLocks.Slot slot = slots.get(k);
+            bookings.add(new ReservationJournal.Booking(
+                    slot.tableId(), slot.startTime(), slot.endTime(), requests.get(items.get(k)).partySize()));
+        }
+        List<Long> ids = journal.appendAll(restaurantId, bookings);
+        for (int k = 0; k < items.size(); k++) {
+            BookingLocks.Slot slot = slots.get(k);
+            eventPublisher.publishEvent(new ReservationCreatedEvent(
+                    ids.get(k), restaurantId, slot.tableId(), slot.startTime(), slot.endTime()));
+            int i = items.get(k);
+            results[i] = new BatchReservationResultDto(i, Status.CREATED, ids.get(k), null);
+        }
+    }
+
+    /**
+     * Inserts the given batch items inside the current transaction and publishes one event per reservation.
+     */
+    private List<Reservation> insertAll(Long restaurantId, List<CreateReservationRequestDto> requests, List<Integer> items) {
+        List<Reservation> reservations = new ArrayList<>(items.size());
+        for (int i : items) {
+            CreateReservationRequestDto r = requests.get(i);
+            LocalDateTime start = startOf(r);
+            reservations.add(newReservation(restaurantId, r.tableId(), start, start.plus(ReservationPolicy.DEFAULT_DURATION), r.partySize()));
+        }
+        List<Reservation> saved = reservationRepository.saveAllAndFlush(reservations);
+        for (Reservation reservation : saved) {
+            eventPublisher.publishEvent(new ReservationCreatedEvent(
+                    reservation.getId(), restaurantId, reservation.getTable().getId(), reservation.getStartTime(), reservation.getEndTime()));
+        }
+        return saved;
+    }
+
+    /**
+     * Stores a reservation whose slot is known to be free in memory: appends it to the journal if
+     * journaled writes are enabled, otherwise inserts it in a new transaction. Slots the index does
+     * not fully cover (before its horizon) are always inserted, so the database check applies.
+     */
+    private Long store(Long restaurantId, Long tableId, LocalDateTime start, LocalDateTime end, int partySize,
+                       String key, IdempotencyStore.Request fingerprint) {
+        if (journal == null || !reservationIndex.covers(start)) {
+            return transactionTemplate.execute(status -> insert(restaurantId, tableId, start, end, partySize, key, fingerprint));
+        }
+        Long reservationId = journal.append(restaurantId, tableId, start, end, partySize);
+        // No transaction is active, so listeners such as ReservationIndex run before the booking lock is released.
+        eventPublisher.publishEvent(new ReservationCreatedEvent(reservationId, restaurantId, tableId, start, end));
+        return reservationId;
+    }
+
+    /**
+     * Inserts the reservation, and its idempotency key if there is one, inside the current transaction.
+     * The ReservationCreatedEvent is delivered to listeners after commit.
+     */
+    private Long insert(Long restaurantId, Long tableId, LocalDateTime start, LocalDateTime end, int partySize,
+                        String key, IdempotencyStore.Request fingerprint) {
+        if (reservationRepository.existsOverlapping(tableId, start, end)) {
+            metrics.recordConflict("database");
             throw new IllegalStateException("Table already reserved at that time");
         }
 
+        Reservation reservation = newReservation(restaurantId, tableId, start, end, partySize);
+
+        try {
+            reservationRepository.saveAndFlush(reservation);
+        } catch (DataIntegrityViolationException e) {
+            if (isOverlapViolation(e)) {
+                metrics.recordConflict("constraint");
+                throw new IllegalStateException("Table already reserved at that time", e);
+            }
+            throw e;
+        }
+        if (key != null) {
+            idempotencyStore.save(key, fingerprint, reservation.getId());
+        }
+
+        eventPublisher.publishEvent(new ReservationCreatedEvent(reservation.getId(), restaurantId, tableId, start, end));
+        return reservation.getId();
+    }
+
+    private Reservation newReservation(Long restaurantId, Long tableId, LocalDateTime start, LocalDateTime end, int partySize) {
         Reservation reservation = new Reservation();
-        reservation.setTable(table);
+        reservation.setRestaurant(restaurantRepository.getReferenceById(restaurantId));
+        reservation.setTable(tableRepository.getReferenceById(tableId));
         reservation.setStartTime(start);
         reservation.setEndTime(end);
-        reservation.setPartySize(request.partySize());
+        reservation.setPartySize(partySize);
+        return reservation;
+    }
+
+    private static LocalDateTime startOf(CreateReservationRequestDto request) {
+        return LocalDateTime.of(request.date(), request.time());
+    }
+
+    private static IdempotencyStore.Request fingerprint(Long restaurantId, CreateReservationRequestDto request) {
+        return new IdempotencyStore.Request(restaurantId, request.tableId(), startOf(request), request.partySize());
+    }
 
-        reservationRepository.save(reservation);
+    private static BatchReservationResultDto rejected(int index, Status status, String message) {
+        return new BatchReservationResultDto(index, status, null, message);
+    }
+
+    /**
+     * Returns true if the exception was caused by the reservation_no_overlap exclusion constraint
+     * (PostgreSQL SQLState 23P01, exclusion_violation).
+     */
+    static boolean isOverlapViolation(DataIntegrityViolationException e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SQLException sql && "23P01".equals(sql.getSQLState())) {
+                return true;
+            }
+            if (t.getMessage() != null && t.getMessage().contains(ReservationSchemaInitializer.NO_OVERLAP_CONSTRAINT)) {
+                return true;
+            }
+        }
+        return false;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,204 @@
+package com.arturkytt.restaurantreservationsystem.service;
+
+import com.arturkytt.restaurantreservationsystem.domain.Zone;
+import com.arturkytt.restaurantreservationsystem.dto.TableCombinationDto;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Finds sets of adjacent free tables that together can seat a party no single table fits.
+ *
+ * A combination is a connected set of tables in the adjacency graph of the floor plan snapshot
+ * (tables of one zone standing next to each other), with at most MAX_TABLES tables.
+ * Combinations are ranked by unused seats, then by number of tables, then by table codes.
+ *
+ * The search enumerates every connected set exactly once (each set is grown from its lowest row
+ * and only extended by tables that are not yet adjacent to it) and prunes:
+ * - sets that already seat the party (adding tables only adds unused seats)
+ * - sets that cannot reach the party size even with the largest remaining tables
+ * - sets that cannot beat the worst of the best combinations found so far
+ *
+ * The search stops at the time budget and returns the best combinations found until then.
+ */
+final class TableCombinationSolver {
+
+    /**
+     * Maximum number of tables joined for one party.
+     */
+    static final int MAX_TABLES = 4;
+
+    /**
+     * Hard limit for the search time of a single request.
+     */
+    static final Duration TIME_BUDGET = Duration.ofMillis(50);
+
+    private static final int DEADLINE_CHECK_INTERVAL = 1024;
+
+    private static final Comparator<Combination> ORDER = Comparator
+            .comparingInt(Combination::capacity)
+            .thenComparingInt(c -> c.rows().length)
+            .thenComparing(Combination::rows, Arrays::compare);
+
+    private final FloorPlanSnapshot floorPlan;
+    private final BitSet usable;
+    private final int partySize;
+    private final int limit;
+    private final int maxUsableCapacity;
+    private final long deadline;
+
+    private final int[] current = new int[MAX_TABLES];
+    private final List<Combination> best = new ArrayList<>();
+    private long nodes;
+    private boolean timedOut;
+
+    private TableCombinationSolver(FloorPlanSnapshot floorPlan, BitSet usable, int partySize, int limit, Duration budget) {
+        this.floorPlan = floorPlan;
+        this.usable = usable;
+        this.partySize = partySize;
+        this.limit = limit;
+        int max = 0;
+        for (int row = usable.nextSetBit(0); row >= 0; row = usable.nextSetBit(row + 1)) {
+            max = Math.max(max, floorPlan.table(row).capacity());
+        }
+        this.maxUsableCapacity = max;
+        this.deadline = System.nanoTime() + budget.toNanos();
+    }
+
+    /**
+     * Returns the best combinations of adjacent free tables for the party.
+     *
+     * @param floorPlan floor plan snapshot
+     * @param free free tables as a bitset over snapshot rows
+     * @param partySize number of guests
+     * @param zone optional zone restriction; if null, combinations from all zones are considered
+     * @param limit maximum number of combinations
+     * @param budget maximum search time
+     * @return combinations, best fit first
+     */
+    static List<TableCombinationDto> solve(FloorPlanSnapshot floorPlan, BitSet free, int partySize, Zone zone,
+                                           int limit, Duration budget) {
+        BitSet usable = new BitSet(floorPlan.size());
+        for (int row = free.nextSetBit(0); row >= 0; row = free.nextSetBit(row + 1)) {
+            FloorPlanSnapshot.TableRecord t = floorPlan.table(row);
+            if (t.capacity() > 0 && (zone == null || t.zone() == zone)) {
+                usable.set(row);
+            }
+        }
+
+        TableCombinationSolver solver = new TableCombinationSolver(floorPlan, usable, partySize, limit, budget);
+        solver.search();
+        return solver.best.stream().map(solver::toDto).toList();
+    }
+
+    private void search() {
+        for (int root = usable.nextSetBit(0); root >= 0 && !timedOut; root = usable.nextSetBit(root + 1)) {
+            int[] extension = new int[floorPlan.neighbours(root).length];
+            int count = 0;
+            for (int u : floorPlan.neighbours(root)) {
+                if (u > root && usable.get(u)) {
+                    extension[count++] = u;
+                }
+            }
+            current[0] = root;
+            extend(1, floorPlan.table(root).capacity(), Arrays.copyOf(extension, count), root);
+        }
+    }
+
+    /**
+     * Extends the connected set current[0, size) by tables of the extension, all greater than root.
+     */
+    private void extend(int size, int capacity, int[] extension, int root) {
+        if (capacity >= partySize) {
+            offer(size, capacity);
+            return;
+        }
+        if (size == MAX_TABLES
+                || capacity + (MAX_TABLES - size) * maxUsableCapacity < partySize
+                || !canImprove(size + 1)
+                || deadlineReached()) {
+            return;
+        }
+
+        for (int i = 0; i < extension.length && !timedOut; i++) {
+            int w = extension[i];
+
+            // Remaining extension plus neighbours of w that are not yet in or next to the set.
+            int[] next = Arrays.copyOfRange(extension, i + 1, extension.length + floorPlan.neighbours(w).length);
+            int count = extension.length - i - 1;
+            for (int u : floorPlan.neighbours(w)) {
+                if (u > root && usable.get(u) && !inOrNextTo(u, size)) {
+                    next[count++] = u;
+                }
+            }
+
+            current[size] = w;
+            extend(size + 1, capacity + floorPlan.table(w).capacity(), Arrays.copyOf(next, count), root);
+        }
+    }
+
+    private boolean inOrNextTo(int row, int size) {
+        for (int i = 0; i < size; i++) {
+            if (current[i] == row || Arrays.binarySearch(floorPlan.neighbours(current[i]), row) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns false if no combination with at least the given number of tables can enter the result.
+     * The best conceivable such combination has no unused seats.
+     */
+    private boolean canImprove(int tables) {
+        if (best.size() < limit) {
+            return true;
+        }
+        Combination worst = best.getLast();
+        return worst.capacity() > partySize || worst.rows().length > tables;
+    }
+
+    private void offer(int size, int capacity) {
+        int[] rows = Arrays.copyOf(current, size);
+        Arrays.sort(rows);
+        Combination candidate = new Combination(rows, capacity);
+        if (best.size() == limit && ORDER.compare(candidate, best.getLast()) >= 0) {
+            return;
+        }
+        int index = 0;
+        while (index < best.size() && ORDER.compare(best.get(index), candidate) <= 0) {
+            index++;
+        }
+        best.add(index, candidate);
+        if (best.size() > limit) {
+            best.removeLast();
+        }
+    }
+
+    private boolean deadlineReached() {
+        if (++nodes % DEADLINE_CHECK_INTERVAL == 0 && System.nanoTime() > deadline) {
+            timedOut = true;
+        }
+        return timedOut;
+    }
+
+    private TableCombinationDto toDto(Combination c) {
+        List<Long> ids = new ArrayList<>(c.rows().length);
+        List<String> codes = new ArrayList<>(c.rows().length);
+        for (int row : c.rows()) {
+            ids.add(floorPlan.table(row).id());
+            codes.add(floorPlan.table(row).code());
+        }
+        Zone zone = floorPlan.table(c.rows()[0]).zone();
+        return new TableCombinationDto(ids, codes, zone, c.capacity(), c.capacity() - partySize);
+    }
+
+    /**
+     * Combination found during the search; rows are sorted, i.e. in table code order.
+     */
+    private record Combination(int[] rows, int capacity) {}
+}
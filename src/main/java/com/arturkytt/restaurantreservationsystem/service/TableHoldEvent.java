@@ -0,0 +1,18 @@
+package com.arturkytt.restaurantreservationsystem.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Application event published by HoldService when a table hold is placed or removed
+ * (released, expired or converted into a reservation).
+ *
+ * AvailabilityStreamService forwards it to subscribers, since holds change availability
+ * just like reservations do.
+ */
+public record TableHoldEvent(
+        Long restaurantId,
+        Long tableId,
+        LocalDateTime startTime,
+        LocalDateTime endTime,
+        boolean placed
+) {}
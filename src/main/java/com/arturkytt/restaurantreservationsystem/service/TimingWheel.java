@@ -0,0 +1,115 @@
+package com.arturkytt.restaurantreservationsystem.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hashed timing wheel for short timeouts such as table holds.
+ *
+ * Time is divided into ticks. A timeout is put into the bucket (deadline tick mod wheel size),
+ * so scheduling and cancelling are O(1), and advancing the wheel by one tick only visits
+ * the timeouts of one bucket instead of scanning all pending ones. Timeouts further away
+ * than one turn of the wheel stay in their bucket until the wheel reaches their deadline tick.
+ *
+ * Expiry resolution is one tick: a timeout fires at the first advance after its deadline,
+ * rounded up to the next tick. Tasks run on the thread calling advance.
+ */
+final class TimingWheel {
+
+    /**
+     * Handle of a scheduled task.
+     */
+    final class Timeout {
+
+        private final long deadlineTick;
+        private final Runnable task;
+
+        private Timeout(long deadlineTick, Runnable task) {
+            this.deadlineTick = deadlineTick;
+            this.task = task;
+        }
+
+        /**
+         * Removes the timeout from the wheel. A task that is already running is not interrupted.
+         */
+        void cancel() {
+            bucket(deadlineTick).remove(this);
+        }
+    }
+
+    private final long tickNanos;
+    private final long startNanos;
+    private final List<Set<Timeout>> buckets;
+
+    // Last tick whose bucket has been processed; guarded by this.
+    private long processedTick;
+
+    TimingWheel(Duration tick, int wheelSize, long startNanos) {
+        if (tick.isNegative() || tick.isZero()) {
+            throw new IllegalArgumentException("Tick must be positive");
+        }
+        if (wheelSize < 1) {
+            throw new IllegalArgumentException("Wheel size must be at least 1");
+        }
+        this.tickNanos = tick.toNanos();
+        this.startNanos = startNanos;
+        this.buckets = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            buckets.add(ConcurrentHashMap.newKeySet());
+        }
+    }
+
+    /**
+     * Schedules the task to run once the delay has passed.
+     *
+     * @param nowNanos current System.nanoTime()
+     * @param delay delay until the task runs
+     * @param task task to run
+     * @return handle to cancel the task
+     */
+    synchronized Timeout schedule(long nowNanos, Duration delay, Runnable task) {
+        long deadlineNanos = nowNanos - startNanos + delay.toNanos();
+        long deadlineTick = Math.max(Math.ceilDiv(deadlineNanos, tickNanos), processedTick + 1);
+        Timeout timeout = new Timeout(deadlineTick, task);
+        bucket(deadlineTick).add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Processes all ticks up to the current time and runs the tasks whose deadline was reached.
+     *
+     * @param nowNanos current System.nanoTime()
+     * @return number of tasks run
+     */
+    int advance(long nowNanos) {
+        List<Timeout> due = new ArrayList<>();
+        synchronized (this) {
+            long currentTick = (nowNanos - startNanos) / tickNanos;
+            // After a pause longer than one turn every bucket is due once; visiting more ticks finds nothing new.
+            long firstTick = Math.max(processedTick + 1, currentTick - buckets.size() + 1);
+            for (long tick = firstTick; tick <= currentTick; tick++) {
+                Iterator<Timeout> it = bucket(tick).iterator();
+                while (it.hasNext()) {
+                    Timeout timeout = it.next();
+                    if (timeout.deadlineTick <= currentTick) {
+                        it.remove();
+                        due.add(timeout);
+                    }
+                }
+            }
+            processedTick = Math.max(processedTick, currentTick);
+        }
+        for (Timeout timeout : due) {
+            timeout.task.run();
+        }
+        return due.size();
+    }
+
+    private Set<Timeout> bucket(long tick) {
+        return buckets.get((int) Math.floorMod(tick, (long) buckets.size()));
+    }
+}
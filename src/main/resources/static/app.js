@@ -2,6 +2,7 @@ const statusBadge = document.getElementById("statusBadge");
 const floorGrid = document.getElementById("floorGrid");
 const summary = document.getElementById("summary");
 
+const restaurantSelect = document.getElementById("restaurantSelect");
 const dateInput = document.getElementById("dateInput");
 const timeInput = document.getElementById("timeInput");
 const partySizeInput = document.getElementById("partySizeInput");
@@ -26,6 +27,13 @@ let recommendedId = null;
 
 let refreshTimeout;
 
+// Server-Sent Events subscription for the selected date
+const RESERVATION_MINUTES = 120;
+const HOLD_SECONDS = 60;
+let availabilityStream = null;
+let streamKey = null;
+let streamLost = false;
+
 function todayISO() {
     const d = new Date();
     const yyyy = d.getFullYear();
@@ -43,7 +51,8 @@ function apiUrl(path) {
 }
 
 async function fetchJson(url) {
-    const res = await fetch(url);
+    // "no-cache" revalidates the browser's cached copy with If-None-Match; unchanged data comes back as 304.
+    const res = await fetch(url, { cache: "no-cache" });
     if (!res.ok) throw new Error(`${res.status} ${res.statusText}`);
     return res.json();
 }
@@ -59,18 +68,12 @@ async function postJson(url, body) {
         const text = await res.text().catch(() => "");
         throw new Error(text || `${res.status} ${res.statusText}`);
     }
+    const text = await res.text();
+    return text ? JSON.parse(text) : null;
 }
 
-function buildAvailabilityUrl() {
-    const date = dateInput.value;
-    const time = timeInput.value;
-    const partySize = partySizeInput.value;
-    const zone = zoneSelect.value;
-
-    const params = new URLSearchParams({ date, time, partySize });
-    if (zone) params.append("zone", zone);
-
-    return apiUrl(`/api/availability?${params.toString()}`);
+function restaurantParams(extra = {}) {
+    return new URLSearchParams({ restaurantId: restaurantSelect.value, ...extra });
 }
 
 function selectedFeaturesCsv() {
@@ -79,7 +82,7 @@ function selectedFeaturesCsv() {
         .join(",");
 }
 
-function buildRecommendationUrl() {
+function buildFloorUrl() {
     const date = dateInput.value;
     const time = timeInput.value;
     const partySize = partySizeInput.value;
@@ -87,11 +90,11 @@ function buildRecommendationUrl() {
 
     const features = selectedFeaturesCsv();
 
-    const params = new URLSearchParams({ date, time, partySize });
+    const params = restaurantParams({ date, time, partySize });
     if (zone) params.append("zone", zone);
     if (features) params.append("features", features);
 
-    return apiUrl(`/api/recommendation?${params.toString()}`);
+    return apiUrl(`/api/floor?${params.toString()}`);
 }
 
 function availabilityById(id) {
@@ -159,9 +162,32 @@ function renderFloor() {
 
 function renderRecommendation(resp) {
     if (!resp || !resp.recommended) {
-        recommendationBox.innerHTML = `<div class="muted">No suitable table found.</div>`;
-        topCandidates.innerHTML = `<div class="muted">—</div>`;
         recommendedId = null;
+        const combinations = (resp && resp.combinations) || [];
+        if (!combinations.length) {
+            recommendationBox.innerHTML = `<div class="muted">No suitable table found.</div>`;
+            topCandidates.innerHTML = `<div class="muted">—</div>`;
+            renderFloor();
+            return;
+        }
+
+        const c = combinations[0];
+        recommendationBox.innerHTML = `
+    <div><strong>${c.codes.join(" + ")}</strong> <span class="kv">(${displayZone(c.zone)})</span></div>
+    <div class="muted">No single table fits · combined capacity: ${c.capacity} · unused seats: ${c.unusedSeats}</div>
+  `;
+        topCandidates.innerHTML = "";
+        combinations.forEach(comb => {
+            const row = document.createElement("div");
+            row.className = "row";
+            row.innerHTML = `
+      <div>
+        <div><strong>${comb.codes.join(" + ")}</strong> <span class="kv">${displayZone(comb.zone)}</span></div>
+        <div class="kv">cap ${comb.capacity} · unused ${comb.unusedSeats}</div>
+      </div>
+    `;
+            topCandidates.appendChild(row);
+        });
         renderFloor();
         return;
     }
@@ -193,30 +219,78 @@ function renderRecommendation(resp) {
     renderFloor();
 }
 
-async function refreshAll() {
+// one request returns tables, occupancy and the recommendation for the selected slot
+async function refreshAll(showRecommendation = false) {
     try {
         statusBadge.textContent = "Loading…";
         statusBadge.style.opacity = "1";
 
-        tables = await fetchJson(apiUrl("/api/tables"));
-        availability = await fetchJson(buildAvailabilityUrl());
+        const floor = await fetchJson(buildFloorUrl());
+        tables = floor.tables;
+        availability = floor.tables;
 
         statusBadge.textContent = "Connected";
-        renderFloor();
+        if (showRecommendation) renderRecommendation(floor.recommendation);
+        else renderFloor();
+        subscribeAvailability();
     } catch (e) {
         statusBadge.textContent = "Error";
         recommendationBox.innerHTML = `<div class="muted">${e.message}</div>`;
     }
 }
 
-async function recommend() {
-    try {
-        const resp = await fetchJson(buildRecommendationUrl());
-        renderRecommendation(resp);
-    } catch (e) {
-        recommendationBox.innerHTML = `<div class="muted">${e.message}</div>`;
-    }
+function subscribeAvailability() {
+    const params = restaurantParams({ date: dateInput.value });
+    const key = params.toString();
+    if (availabilityStream && streamKey === key) return;
+    if (availabilityStream) availabilityStream.close();
+
+    streamKey = key;
+    streamLost = false;
+    availabilityStream = new EventSource(apiUrl(`/api/availability/stream?${key}`));
+
+    availabilityStream.addEventListener("reservation", (e) => applyDelta(JSON.parse(e.data)));
+    availabilityStream.addEventListener("hold", (e) => applyDelta(JSON.parse(e.data)));
+    availabilityStream.addEventListener("release", (e) => applyRelease(JSON.parse(e.data)));
+
+    availabilityStream.addEventListener("error", () => {
+        streamLost = true;
+        statusBadge.textContent = "Reconnecting…";
+    });
+
+    // changes made while disconnected were not pushed, so reload once after reconnecting
+    availabilityStream.addEventListener("open", () => {
+        if (!streamLost) return;
+        streamLost = false;
+        refreshAll();
+    });
+}
+
+function intersectsWindow(delta) {
+    const windowStart = new Date(`${dateInput.value}T${timeInput.value}`);
+    const windowEnd = new Date(windowStart.getTime() + RESERVATION_MINUTES * 60000);
+    return new Date(delta.startTime) < windowEnd && new Date(delta.endTime) > windowStart;
 }
+
+function applyDelta(delta) {
+    if (!intersectsWindow(delta)) return;
+
+    const av = availabilityById(delta.tableId);
+    if (!av || av.occupied) return;
+
+    av.occupied = true;
+    if (recommendedId === delta.tableId) recommendedId = null;
+    renderFloor();
+}
+
+// a released hold may free the table, unless something else occupies it, so ask the server
+function applyRelease(delta) {
+    if (!intersectsWindow(delta)) return;
+
+    const av = availabilityById(delta.tableId);
+    if (av && av.occupied) refreshAll();
+}
+
 function showToast(message, type = "success") {
     toast.textContent = message;
     toast.className = `toast ${type}`;
@@ -262,22 +336,40 @@ async function reserveTable(tableId) {
     const time = timeInput.value;
     const partySize = Number(partySizeInput.value);
 
+    // hold the table while the dialog is open, so another host cannot book it in the meantime
+    let hold;
+    try {
+        hold = await postJson(apiUrl(`/api/holds?${restaurantParams()}`), {
+            tableId,
+            date,
+            time,
+            partySize,
+            seconds: HOLD_SECONDS
+        });
+    } catch (e) {
+        showToast("Table is no longer available", "error");
+        console.error(e);
+        await refreshAll();
+        return;
+    }
+
     //const ok = confirm(`Create reservation?\nTable ID: ${tableId}\n${date} ${time}\nParty size: ${partySize}`);
     const ok = await openConfirm(
         `Table ID: ${tableId}\n${date} ${time}\nParty size: ${partySize}`
     );
-    if (!ok) return;
+    if (!ok) {
+        fetch(apiUrl(`/api/holds/${hold.id}?${restaurantParams()}`), { method: "DELETE" }).catch(() => {});
+        return;
+    }
 
     try {
-        await postJson("/api/reservations", {
-            tableId,
-            date,
-            time,
-            partySize
-        });
+        await postJson(apiUrl(`/api/holds/${hold.id}/confirm?${restaurantParams()}`));
         showToast("Reservation created", "success");
         recommendedId = null;
-        await refreshAll();
+        // the stream pushes the new reservation; reload only when it is not connected
+        if (!availabilityStream || availabilityStream.readyState !== EventSource.OPEN) {
+            await refreshAll();
+        }
     } catch (e) {
         showToast("Reservation failed", "error");
         console.error(e);
@@ -292,6 +384,13 @@ function init() {
     dateInput.value = todayISO();
     timeInput.value = defaultTime();
 
+    restaurantSelect.addEventListener("change", async () => {
+        recommendedId = null;
+        recommendationBox.innerHTML = `<div class="muted">Press “Recommend”</div>`;
+        topCandidates.innerHTML = "";
+        await refreshAll();
+    });
+
     refreshBtn.addEventListener("click", async () => {
         recommendedId = null;
         await refreshAll();
@@ -299,8 +398,7 @@ function init() {
 
     recommendBtn.addEventListener("click", async () => {
         recommendedId = null;
-        await refreshAll();
-        await recommend();
+        await refreshAll(true);
     });
 
     partySizeInput.addEventListener("input", () => {
@@ -315,11 +413,32 @@ function init() {
         }, 300);
     });
 
+    dateInput.addEventListener("change", async () => {
+        recommendedId = null;
+        await refreshAll();
+    });
+
     zoneSelect.addEventListener("change", async () => {
         recommendedId = null;
         await refreshAll();
     });
 
-    refreshAll();
+    loadRestaurants().then(() => refreshAll());
+}
+
+async function loadRestaurants() {
+    try {
+        const restaurants = await fetchJson(apiUrl("/api/restaurants"));
+        restaurantSelect.innerHTML = "";
+        for (const r of restaurants) {
+            const option = document.createElement("option");
+            option.value = r.id;
+            option.textContent = r.name;
+            restaurantSelect.appendChild(option);
+        }
+    } catch (e) {
+        statusBadge.textContent = "Error";
+        console.error(e);
+    }
 }
 init();
\ No newline at end of file
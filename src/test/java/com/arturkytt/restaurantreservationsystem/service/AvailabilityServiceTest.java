@@ -0,0 +1,93 @@
+package com.arturkytt.restaurantreservationsystem.service;
+
+import com.arturkytt.restaurantreservationsystem.domain.Zone;
+import com.arturkytt.restaurantreservationsystem.dto.AvailabilityGridDto;
+import com.arturkytt.restaurantreservationsystem.repository.DiningTableRepository;
+import com.arturkytt.restaurantreservationsystem.repository.ReservationRepository;
+import com.arturkytt.restaurantreservationsystem.repository.RestaurantRepository;
+import com.arturkytt.restaurantreservationsystem.repository.TableRow;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for AvailabilityService.
+ *
+ * These tests verify that the day grid:
+ * - marks every slot touched by a reservation as occupied, run-length encoded
+ * - keeps free tables without runs
+ * - checks the whole last slot when the range is not a multiple of the step, and rejects oversized steps
+ */
+class AvailabilityServiceTest {
+
+    private static final Long RESTAURANT_ID = 1L;
+
+    private DiningTableRepository tableRepository;
+    private ReservationIndex reservationIndex;
+    private AvailabilityService availabilityService;
+    /**
+     * Initializes the service with mocked repositories before each test.
+     */
+    @BeforeEach
+    void setup() {
+        tableRepository = mock(DiningTableRepository.class);
+        RestaurantRepository restaurantRepository = mock(RestaurantRepository.class);
+        when(restaurantRepository.existsById(RESTAURANT_ID)).thenReturn(true);
+        reservationIndex = new ReservationIndex(mock(ReservationRepository.class));
+        availabilityService = new AvailabilityService(new FloorPlanCache(restaurantRepository, tableRepository), reservationIndex,
+                new ReservationMetrics(new SimpleMeterRegistry(), reservationIndex));
+    }
+    /**
+     * Verifies grid runs for a table with two reservations, one of them off the slot grid.
+     */
+    @Test
+    void shouldEncodeOccupiedSlotsAsRuns() {
+        when(tableRepository.findTableRows(RESTAURANT_ID)).thenReturn(List.of(
+                table(1L, "T1"),
+                table(2L, "T2")
+        ));
+        reservationIndex.add(RESTAURANT_ID, 1L, LocalDateTime.of(2026, 3, 1, 16, 0), LocalDateTime.of(2026, 3, 1, 18, 0));
+        reservationIndex.add(RESTAURANT_ID, 1L, LocalDateTime.of(2026, 3, 1, 19, 10), LocalDateTime.of(2026, 3, 1, 21, 10));
+
+        AvailabilityGridDto grid = availabilityService.getGrid(
+                RESTAURANT_ID, LocalDate.of(2026, 3, 1), LocalTime.of(17, 0), LocalTime.of(21, 0), 15);
+
+        assertThat(grid.slots()).isEqualTo(16);
+        assertThat(grid.tables().get(0).code()).isEqualTo("T1");
+        assertThat(grid.tables().get(0).occupiedRuns()).containsExactly(new int[]{0, 4}, new int[]{8, 8});
+        assertThat(grid.tables().get(1).occupiedRuns()).isEmpty();
+    }
+    /**
+     * Verifies that the last slot (21:45 to 22:00 for a range ending at 21:50) sees a reservation
+     * starting after the end of the range, and that a step longer than a day is rejected.
+     */
+    @Test
+    void shouldCheckTheWholeLastSlot() {
+        when(tableRepository.findTableRows(RESTAURANT_ID)).thenReturn(List.of(table(1L, "T1")));
+        reservationIndex.add(RESTAURANT_ID, 1L, LocalDateTime.of(2026, 3, 1, 21, 55), LocalDateTime.of(2026, 3, 1, 23, 55));
+
+        AvailabilityGridDto grid = availabilityService.getGrid(
+                RESTAURANT_ID, LocalDate.of(2026, 3, 1), LocalTime.of(12, 0), LocalTime.of(21, 50), 15);
+
+        assertThat(grid.slots()).isEqualTo(40);
+        assertThat(grid.tables().get(0).occupiedRuns()).containsExactly(new int[]{39, 1});
+        assertThatThrownBy(() -> availabilityService.getGrid(
+                RESTAURANT_ID, LocalDate.of(2026, 3, 1), LocalTime.of(12, 0), LocalTime.of(21, 50), Integer.MAX_VALUE))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+    /**
+     * Test helper for building a table row without features.
+     */
+    private TableRow table(Long id, String code) {
+        return new TableRow(id, code, 4, Zone.MAIN_HALL, 1, 1, null);
+    }
+}
@@ -0,0 +1,84 @@
+package com.arturkytt.restaurantreservationsystem.service;
+
+import com.arturkytt.restaurantreservationsystem.domain.Feature;
+import com.arturkytt.restaurantreservationsystem.domain.Zone;
+import com.arturkytt.restaurantreservationsystem.dto.FloorDto;
+import com.arturkytt.restaurantreservationsystem.dto.TableAvailabilityDto;
+import com.arturkytt.restaurantreservationsystem.repository.DiningTableRepository;
+import com.arturkytt.restaurantreservationsystem.repository.ReservationRepository;
+import com.arturkytt.restaurantreservationsystem.repository.RestaurantRepository;
+import com.arturkytt.restaurantreservationsystem.repository.TableRow;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SyncTaskExecutor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for FloorService.
+ *
+ * These tests verify that the floor view:
+ * - returns every table with occupancy and suitability, like the availability endpoint
+ * - recommends only tables that the same response shows as free and suitable
+ * - loads the floor plan from the repository once
+ */
+class FloorServiceTest {
+
+    private static final Long RESTAURANT_ID = 1L;
+    private static final LocalDate DATE = LocalDate.of(2026, 3, 1);
+
+    private DiningTableRepository tableRepository;
+    private ReservationIndex reservationIndex;
+    private FloorService floorService;
+    /**
+     * Initializes the service with mocked repositories before each test.
+     */
+    @BeforeEach
+    void setup() {
+        tableRepository = mock(DiningTableRepository.class);
+        RestaurantRepository restaurantRepository = mock(RestaurantRepository.class);
+        when(restaurantRepository.existsById(RESTAURANT_ID)).thenReturn(true);
+        reservationIndex = new ReservationIndex(mock(ReservationRepository.class));
+        ReservationMetrics metrics = new ReservationMetrics(new SimpleMeterRegistry(), reservationIndex);
+        FloorPlanCache floorPlanCache = new FloorPlanCache(restaurantRepository, tableRepository);
+        floorService = new FloorService(floorPlanCache, reservationIndex,
+                new RecommendationService(floorPlanCache, reservationIndex, metrics, new SyncTaskExecutor()), metrics);
+    }
+    /**
+     * Verifies that the best fitting table is skipped while occupied and the recommendation
+     * falls back to the next free, suitable table of the same response.
+     */
+    @Test
+    void shouldCombineOccupancyAndRecommendation() {
+        when(tableRepository.findTableRows(RESTAURANT_ID)).thenReturn(List.of(
+                table(1L, "T1", 2),
+                table(2L, "T2", 4),
+                table(3L, "T3", 6)
+        ));
+        reservationIndex.add(RESTAURANT_ID, 2L, LocalDateTime.of(2026, 3, 1, 17, 0), LocalDateTime.of(2026, 3, 1, 19, 0));
+
+        FloorDto floor = floorService.getFloor(RESTAURANT_ID, DATE, LocalTime.of(18, 0), 4, null,
+                EnumSet.noneOf(Feature.class), 3);
+
+        assertThat(floor.tables()).extracting(TableAvailabilityDto::code).containsExactly("T1", "T2", "T3");
+        assertThat(floor.tables()).extracting(TableAvailabilityDto::occupied).containsExactly(false, true, false);
+        assertThat(floor.tables()).extracting(TableAvailabilityDto::suitable).containsExactly(false, true, true);
+        assertThat(floor.recommendation().recommended().code()).isEqualTo("T3");
+        assertThat(floor.recommendation().topCandidates()).hasSize(1);
+        verify(tableRepository, times(1)).findTableRows(RESTAURANT_ID);
+    }
+    /**
+     * Test helper for building a table row without features.
+     */
+    private TableRow table(Long id, String code, int capacity) {
+        return new TableRow(id, code, capacity, Zone.MAIN_HALL, id.intValue() * 2, 1, null);
+    }
+}
@@ -3,12 +3,18 @@ package com.arturkytt.restaurantreservationsystem.service;
 import com.arturkytt.restaurantreservationsystem.domain.*;
 import com.arturkytt.restaurantreservationsystem.repository.DiningTableRepository;
 import com.arturkytt.restaurantreservationsystem.repository.ReservationRepository;
+import com.arturkytt.restaurantreservationsystem.repository.ReservationSlot;
+import com.arturkytt.restaurantreservationsystem.repository.RestaurantRepository;
+import com.arturkytt.restaurantreservationsystem.repository.TableRow;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SyncTaskExecutor;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 
@@ -22,11 +28,18 @@ import static org.mockito.Mockito.*;
  * - prefers the best capacity fit
  * - ignores occupied tables
  * - applies feature preferences when scoring candidates
+ * - reuses the precomputed ranking across time slots and skips occupied tables in it
+ * - combines adjacent tables of one zone when no single table fits the party
+ * - finds the next free start times across the end of a day
+ * - ranks flexible multi-day options by table score, then chronologically
  */
 class RecommendationServiceTest {
 
+    private static final Long RESTAURANT_ID = 1L;
+
     private DiningTableRepository tableRepository;
     private ReservationRepository reservationRepository;
+    private FloorPlanCache floorPlanCache;
     private RecommendationService recommendationService;
     /**
      * Initializes the service with mocked repositories before each test.
@@ -35,7 +48,12 @@ class RecommendationServiceTest {
     void setup() {
         tableRepository = mock(DiningTableRepository.class);
         reservationRepository = mock(ReservationRepository.class);
-        recommendationService = new RecommendationService(tableRepository, reservationRepository);
+        RestaurantRepository restaurantRepository = mock(RestaurantRepository.class);
+        when(restaurantRepository.existsById(RESTAURANT_ID)).thenReturn(true);
+        floorPlanCache = new FloorPlanCache(restaurantRepository, tableRepository);
+        ReservationIndex reservationIndex = new ReservationIndex(reservationRepository);
+        recommendationService = new RecommendationService(floorPlanCache, reservationIndex,
+                new ReservationMetrics(new SimpleMeterRegistry(), reservationIndex), new SyncTaskExecutor());
     }
     /**
      * Verifies that the service prefers the smallest suitable table when multiple candidates are available.
@@ -45,10 +63,11 @@ class RecommendationServiceTest {
         DiningTable t1 = table(1L, "T1", 2, Zone.MAIN_HALL, 1, 1, Set.of());
         DiningTable t2 = table(2L, "T2", 4, Zone.MAIN_HALL, 2, 1, Set.of());
 
-        when(tableRepository.findAll()).thenReturn(List.of(t1, t2));
-        when(reservationRepository.findOverlapping(any(), any())).thenReturn(List.of());
+        when(tableRepository.findTableRows(RESTAURANT_ID)).thenReturn(rows(t1, t2));
+        when(reservationRepository.findSlotsStartingAfter(any())).thenReturn(List.of());
 
         var resp = recommendationService.recommend(
+                RESTAURANT_ID,
                 LocalDate.of(2026, 3, 1),
                 LocalTime.of(18, 0),
                 2,
@@ -67,16 +86,14 @@ class RecommendationServiceTest {
         DiningTable t1 = table(1L, "T1", 2, Zone.MAIN_HALL, 1, 1, Set.of());
         DiningTable t2 = table(2L, "T2", 2, Zone.MAIN_HALL, 2, 1, Set.of());
 
-        Reservation existing = new Reservation();
-        existing.setTable(t1);
-        existing.setStartTime(LocalDateTime.of(2026, 3, 1, 18, 0));
-        existing.setEndTime(LocalDateTime.of(2026, 3, 1, 20, 0));
-        existing.setPartySize(2);
+        ReservationSlot existing = new ReservationSlot(RESTAURANT_ID, t1.getId(),
+                LocalDateTime.of(2026, 3, 1, 18, 0), LocalDateTime.of(2026, 3, 1, 20, 0));
 
-        when(tableRepository.findAll()).thenReturn(List.of(t1, t2));
-        when(reservationRepository.findOverlapping(any(), any())).thenReturn(List.of(existing));
+        when(tableRepository.findTableRows(RESTAURANT_ID)).thenReturn(rows(t1, t2));
+        when(reservationRepository.findSlotsStartingAfter(any())).thenReturn(List.of(existing));
 
         var resp = recommendationService.recommend(
+                RESTAURANT_ID,
                 LocalDate.of(2026, 3, 1),
                 LocalTime.of(18, 0),
                 2,
@@ -95,10 +112,11 @@ class RecommendationServiceTest {
         DiningTable w = table(1L, "W1", 4, Zone.MAIN_HALL, 1, 1, Set.of(Feature.WINDOW));
         DiningTable q = table(2L, "Q1", 4, Zone.MAIN_HALL, 2, 1, Set.of(Feature.QUIET));
 
-        when(tableRepository.findAll()).thenReturn(List.of(w, q));
-        when(reservationRepository.findOverlapping(any(), any())).thenReturn(List.of());
+        when(tableRepository.findTableRows(RESTAURANT_ID)).thenReturn(rows(w, q));
+        when(reservationRepository.findSlotsStartingAfter(any())).thenReturn(List.of());
 
         var resp = recommendationService.recommend(
+                RESTAURANT_ID,
                 LocalDate.of(2026, 3, 1),
                 LocalTime.of(18, 0),
                 4,
@@ -109,6 +127,111 @@ class RecommendationServiceTest {
         assertThat(resp.recommended()).isNotNull();
         assertThat(resp.recommended().code()).isEqualTo("W1");
     }
+    /**
+     * Verifies that the ranking is computed once per key and that occupied tables are skipped while walking it.
+     */
+    @Test
+    void shouldReuseRankingAcrossTimeSlots() {
+        DiningTable t1 = table(1L, "T1", 2, Zone.MAIN_HALL, 1, 1, Set.of());
+        DiningTable t2 = table(2L, "T2", 4, Zone.MAIN_HALL, 2, 1, Set.of());
+        DiningTable t3 = table(3L, "T3", 6, Zone.MAIN_HALL, 3, 1, Set.of());
+        DiningTable t4 = table(4L, "T4", 8, Zone.MAIN_HALL, 4, 1, Set.of());
+
+        ReservationSlot existing = new ReservationSlot(RESTAURANT_ID, t1.getId(),
+                LocalDateTime.of(2026, 3, 1, 18, 0), LocalDateTime.of(2026, 3, 1, 20, 0));
+
+        when(tableRepository.findTableRows(RESTAURANT_ID)).thenReturn(rows(t1, t2, t3, t4));
+        when(reservationRepository.findSlotsStartingAfter(any())).thenReturn(List.of(existing));
+
+        var atNoon = recommendationService.recommend(RESTAURANT_ID, LocalDate.of(2026, 3, 1), LocalTime.of(12, 0), 2, null, Set.of());
+        var ranking = floorPlanCache.current(RESTAURANT_ID).ranking(2, null, 0);
+        var atSix = recommendationService.recommend(RESTAURANT_ID, LocalDate.of(2026, 3, 1), LocalTime.of(18, 0), 2, null, Set.of());
+
+        assertThat(atNoon.topCandidates()).extracting("code").containsExactly("T1", "T2", "T3");
+        assertThat(atSix.topCandidates()).extracting("code").containsExactly("T2", "T3", "T4");
+        assertThat(floorPlanCache.current(RESTAURANT_ID).ranking(2, null, 0)).isSameAs(ranking);
+
+        var limited = recommendationService.recommend(RESTAURANT_ID, LocalDate.of(2026, 3, 1), LocalTime.of(12, 0), 2, null, Set.of(), 1);
+        assertThat(limited.topCandidates()).extracting("code").containsExactly("T1");
+    }
+    /**
+     * Verifies that a party larger than any table gets the tightest combination of adjacent tables,
+     * ties broken by table codes (T1+T3+T5 and T2+T3+T5 both seat exactly 12).
+     */
+    @Test
+    void shouldCombineAdjacentTablesForLargeParty() {
+        when(tableRepository.findTableRows(RESTAURANT_ID)).thenReturn(rows(
+                table(1L, "T1", 2, Zone.MAIN_HALL, 2, 2, Set.of()),
+                table(2L, "T2", 2, Zone.MAIN_HALL, 4, 2, Set.of()),
+                table(3L, "T3", 4, Zone.MAIN_HALL, 6, 2, Set.of()),
+                table(4L, "T4", 4, Zone.MAIN_HALL, 2, 4, Set.of()),
+                table(5L, "T5", 6, Zone.MAIN_HALL, 4, 4, Set.of()),
+                table(8L, "T8", 6, Zone.TERRACE, 6, 6, Set.of())
+        ));
+        when(reservationRepository.findSlotsStartingAfter(any())).thenReturn(List.of());
+
+        var resp = recommendationService.recommend(RESTAURANT_ID, LocalDate.of(2026, 3, 1), LocalTime.of(18, 0), 12, null, Set.of());
+
+        assertThat(resp.recommended()).isNull();
+        assertThat(resp.combinations()).isNotEmpty();
+        assertThat(resp.combinations().getFirst().codes()).containsExactly("T1", "T3", "T5");
+        assertThat(resp.combinations().getFirst().unusedSeats()).isZero();
+        assertThat(resp.combinations()).allSatisfy(c -> {
+            assertThat(c.zone()).isEqualTo(Zone.MAIN_HALL);
+            assertThat(c.capacity()).isGreaterThanOrEqualTo(12);
+        });
+    }
+    /**
+     * Verifies that the next-available search skips occupied slots and continues on the following day.
+     */
+    @Test
+    void shouldFindNextAvailableSlots() {
+        DiningTable t1 = table(1L, "T1", 4, Zone.MAIN_HALL, 1, 1, Set.of());
+
+        ReservationSlot evening = new ReservationSlot(RESTAURANT_ID, t1.getId(),
+                LocalDateTime.of(2026, 3, 1, 20, 0), LocalDateTime.of(2026, 3, 1, 22, 0));
+
+        when(tableRepository.findTableRows(RESTAURANT_ID)).thenReturn(rows(t1));
+        when(reservationRepository.findSlotsStartingAfter(any())).thenReturn(List.of(evening));
+
+        var slots = recommendationService.nextAvailable(
+                RESTAURANT_ID, LocalDate.of(2026, 3, 1), LocalTime.of(17, 50), 4, null, Set.of(), 5, 2);
+
+        assertThat(slots).extracting(s -> LocalDateTime.of(s.date(), s.time())).containsExactly(
+                LocalDateTime.of(2026, 3, 1, 18, 0),
+                LocalDateTime.of(2026, 3, 1, 22, 0),
+                LocalDateTime.of(2026, 3, 2, 12, 0),
+                LocalDateTime.of(2026, 3, 2, 12, 15),
+                LocalDateTime.of(2026, 3, 2, 12, 30)
+        );
+        assertThat(slots.getFirst().table().code()).isEqualTo("T1");
+    }
+    /**
+     * Verifies that the flexible search prefers slots where the best fitting table is free.
+     */
+    @Test
+    void shouldRankFlexibleOptionsByScore() {
+        DiningTable small = table(1L, "T1", 2, Zone.TERRACE, 1, 1, Set.of());
+        DiningTable large = table(2L, "T2", 6, Zone.TERRACE, 5, 1, Set.of());
+
+        ReservationSlot firstEvening = new ReservationSlot(RESTAURANT_ID, small.getId(),
+                LocalDateTime.of(2026, 3, 1, 18, 0), LocalDateTime.of(2026, 3, 1, 21, 0));
+
+        when(tableRepository.findTableRows(RESTAURANT_ID)).thenReturn(rows(small, large));
+        when(reservationRepository.findSlotsStartingAfter(any())).thenReturn(List.of(firstEvening));
+
+        var options = recommendationService.flexibleSearch(
+                RESTAURANT_ID, LocalDate.of(2026, 3, 1), LocalDate.of(2026, 3, 2),
+                LocalTime.of(18, 0), LocalTime.of(18, 30), 2, Zone.TERRACE, Set.of(), 4);
+
+        assertThat(options).extracting(o -> o.table().code()).containsExactly("T1", "T1", "T1", "T2");
+        assertThat(options).extracting(o -> LocalDateTime.of(o.date(), o.time())).containsExactly(
+                LocalDateTime.of(2026, 3, 2, 18, 0),
+                LocalDateTime.of(2026, 3, 2, 18, 15),
+                LocalDateTime.of(2026, 3, 2, 18, 30),
+                LocalDateTime.of(2026, 3, 1, 18, 0)
+        );
+    }
     /**
      * Test helper for building DiningTable instances with the required attributes.
      */
@@ -123,4 +246,19 @@ class RecommendationServiceTest {
         t.setFeatures(features);
         return t;
     }
-}
\ No newline at end of file
+    /**
+     * Test helper returning the tables as the repository's table rows (one row per feature).
+     */
+    private static List<TableRow> rows(DiningTable... tables) {
+        List<TableRow> rows = new ArrayList<>();
+        for (DiningTable t : tables) {
+            if (t.getFeatures().isEmpty()) {
+                rows.add(new TableRow(t.getId(), t.getCode(), t.getCapacity(), t.getZone(), t.getX(), t.getY(), null));
+            }
+            for (Feature f : t.getFeatures()) {
+                rows.add(new TableRow(t.getId(), t.getCode(), t.getCapacity(), t.getZone(), t.getX(), t.getY(), f));
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,200 @@
+package com.arturkytt.restaurantreservationsystem.service;
+
+import com.arturkytt.restaurantreservationsystem.repository.ReservationRepository;
+import com.arturkytt.restaurantreservationsystem.repository.ReservationSlot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ReservationIndex.
+ *
+ * These tests verify that the index:
+ * - detects partially overlapping intervals and treats touching intervals as free
+ * - keeps tables independent of each other
+ * - picks up reservations added after the initial load without querying the repository again
+ * - answers slot-aligned and unaligned free-table queries consistently through the day matrix
+ * - keeps restaurants apart, so a booking in one restaurant leaves the day matrices of another cached
+ * - changes the version of exactly the dates a booking affects, and never reuses a version after a reload
+ *   or after evicting date stamps
+ * - drops reservations before its horizon once a day and reports which windows it still covers
+ * - keeps reservations and holds that are only known in memory across a reload
+ */
+class ReservationIndexTest {
+
+    private static final Long RESTAURANT_ID = 1L;
+    private static final Long OTHER_RESTAURANT_ID = 2L;
+
+    private ReservationRepository reservationRepository;
+    private ReservationIndex index;
+    /**
+     * Initializes the index with a mocked repository containing one reservation for table 1.
+     */
+    @BeforeEach
+    void setup() {
+        reservationRepository = mock(ReservationRepository.class);
+        when(reservationRepository.findSlotsStartingAfter(any())).thenReturn(List.of(
+                reservation(1L, LocalDateTime.of(2026, 3, 1, 18, 0), LocalDateTime.of(2026, 3, 1, 20, 0))
+        ));
+        index = new ReservationIndex(reservationRepository);
+    }
+    /**
+     * Verifies overlap detection against the loaded reservation.
+     */
+    @Test
+    void shouldDetectOverlapsForTheSameTable() {
+        assertThat(index.isOccupied(RESTAURANT_ID, 1L, LocalDateTime.of(2026, 3, 1, 17, 0), LocalDateTime.of(2026, 3, 1, 19, 0))).isTrue();
+        assertThat(index.isOccupied(RESTAURANT_ID, 1L, LocalDateTime.of(2026, 3, 1, 19, 45), LocalDateTime.of(2026, 3, 1, 21, 45))).isTrue();
+        assertThat(index.isOccupied(RESTAURANT_ID, 1L, LocalDateTime.of(2026, 3, 1, 20, 0), LocalDateTime.of(2026, 3, 1, 22, 0))).isFalse();
+        assertThat(index.isOccupied(RESTAURANT_ID, 1L, LocalDateTime.of(2026, 3, 1, 16, 0), LocalDateTime.of(2026, 3, 1, 18, 0))).isFalse();
+        assertThat(index.isOccupied(RESTAURANT_ID, 2L, LocalDateTime.of(2026, 3, 1, 18, 0), LocalDateTime.of(2026, 3, 1, 20, 0))).isFalse();
+    }
+    /**
+     * Verifies that created reservations are visible immediately and the repository is read only once.
+     */
+    @Test
+    void shouldApplyCreatedReservationsWithoutReloading() {
+        index.onReservationCreated(new ReservationCreatedEvent(
+                10L, RESTAURANT_ID, 2L, LocalDateTime.of(2026, 3, 1, 12, 0), LocalDateTime.of(2026, 3, 1, 14, 0)));
+
+        assertThat(index.isOccupied(RESTAURANT_ID, 2L, LocalDateTime.of(2026, 3, 1, 13, 0), LocalDateTime.of(2026, 3, 1, 15, 0))).isTrue();
+        assertThat(index.isOccupied(RESTAURANT_ID, 1L, LocalDateTime.of(2026, 3, 1, 13, 0), LocalDateTime.of(2026, 3, 1, 15, 0))).isFalse();
+        verify(reservationRepository, times(1)).findSlotsStartingAfter(any());
+    }
+    /**
+     * Verifies free-table bitsets, including a reservation that starts off the slot grid
+     * and a window that crosses midnight.
+     */
+    @Test
+    void shouldReturnFreeTablesAsBitset() {
+        index.add(RESTAURANT_ID, 2L, LocalDateTime.of(2026, 3, 1, 20, 5), LocalDateTime.of(2026, 3, 1, 22, 5));
+        index.add(RESTAURANT_ID, 3L, LocalDateTime.of(2026, 3, 2, 0, 30), LocalDateTime.of(2026, 3, 2, 2, 30));
+        long[] tableIds = {1L, 2L, 3L};
+
+        BitSet at1900 = index.freeTables(RESTAURANT_ID, LocalDate.of(2026, 3, 1), LocalTime.of(19, 0), tableIds);
+        assertThat(at1900.get(0)).isFalse();
+        assertThat(at1900.get(1)).isFalse();
+        assertThat(at1900.get(2)).isTrue();
+
+        BitSet at1800 = index.freeTables(RESTAURANT_ID, LocalDate.of(2026, 3, 1), LocalTime.of(18, 0), tableIds);
+        assertThat(at1800.get(1)).isTrue();
+
+        BitSet at2305 = index.freeTables(RESTAURANT_ID, LocalDate.of(2026, 3, 1), LocalTime.of(23, 5), tableIds);
+        assertThat(at2305.get(0)).isTrue();
+        assertThat(at2305.get(1)).isTrue();
+        assertThat(at2305.get(2)).isFalse();
+
+        BitSet at2230 = index.freeTables(RESTAURANT_ID, LocalDate.of(2026, 3, 1), LocalTime.of(22, 30), tableIds);
+        assertThat(at2230.get(2)).isTrue();
+    }
+    /**
+     * Verifies that reservations of another restaurant neither show up in nor invalidate
+     * the cached day matrix of a restaurant.
+     */
+    @Test
+    void shouldKeepRestaurantsApart() {
+        long[] tableIds = {1L, 2L};
+        DayOccupancy before = index.dayOccupancy(RESTAURANT_ID, LocalDate.of(2026, 3, 1), tableIds);
+
+        index.add(OTHER_RESTAURANT_ID, 3L, LocalDateTime.of(2026, 3, 1, 18, 0), LocalDateTime.of(2026, 3, 1, 20, 0));
+
+        assertThat(index.dayOccupancy(RESTAURANT_ID, LocalDate.of(2026, 3, 1), tableIds)).isSameAs(before);
+        assertThat(index.isOccupied(OTHER_RESTAURANT_ID, 1L, LocalDateTime.of(2026, 3, 1, 18, 0), LocalDateTime.of(2026, 3, 1, 20, 0))).isFalse();
+        assertThat(index.isOccupied(OTHER_RESTAURANT_ID, 3L, LocalDateTime.of(2026, 3, 1, 18, 0), LocalDateTime.of(2026, 3, 1, 20, 0))).isTrue();
+        assertThat(index.countStartingOn(LocalDate.of(2026, 3, 1))).isEqualTo(2);
+    }
+    /**
+     * Verifies that a booking shortly after midnight changes the version of the previous date
+     * (whose late windows reach into it) and of its own date, but not of other dates or restaurants,
+     * and that versions keep growing across a reload.
+     */
+    @Test
+    void shouldVersionAffectedDates() {
+        LocalDate march1 = LocalDate.of(2026, 3, 1);
+        LocalDate march2 = LocalDate.of(2026, 3, 2);
+        LocalDate march3 = LocalDate.of(2026, 3, 3);
+        long day1 = index.dateVersion(RESTAURANT_ID, march1);
+        long day2 = index.dateVersion(RESTAURANT_ID, march2);
+        long day3 = index.dateVersion(RESTAURANT_ID, march3);
+        long other = index.dateVersion(OTHER_RESTAURANT_ID, march2);
+
+        index.add(RESTAURANT_ID, 2L, LocalDateTime.of(2026, 3, 2, 1, 0), LocalDateTime.of(2026, 3, 2, 3, 0));
+
+        assertThat(index.dateVersion(RESTAURANT_ID, march1)).isGreaterThan(day1);
+        assertThat(index.dateVersion(RESTAURANT_ID, march2)).isGreaterThan(day2);
+        assertThat(index.dateVersion(RESTAURANT_ID, march3)).isEqualTo(day3);
+        assertThat(index.dateVersion(OTHER_RESTAURANT_ID, march2)).isEqualTo(other);
+
+        long beforeReload = index.dateVersion(RESTAURANT_ID, march2);
+        index.reload();
+        assertThat(index.dateVersion(RESTAURANT_ID, march2)).isGreaterThan(beforeReload);
+    }
+    /**
+     * Verifies that once more dates are stamped than the index keeps, the version of an evicted date
+     * does not fall back to an older value.
+     */
+    @Test
+    void shouldKeepDateVersionsGrowingWhenStampsAreEvicted() {
+        LocalDate far = LocalDate.now().plusYears(5);
+        index.add(RESTAURANT_ID, 2L, far.atTime(12, 0), far.atTime(14, 0));
+        long stamped = index.dateVersion(RESTAURANT_ID, far);
+
+        for (int d = 0; d < ReservationIndex.MAX_CACHED_DAYS; d++) {
+            LocalDate day = LocalDate.now().plusDays(d);
+            index.add(RESTAURANT_ID, 3L, day.atTime(12, 0), day.atTime(14, 0));
+        }
+
+        assertThat(index.dateVersion(RESTAURANT_ID, far)).isGreaterThan(stamped);
+    }
+    /**
+     * Verifies that evicting past data drops yesterday's reservations but keeps the late one reaching
+     * into today, and that windows starting before today are no longer reported as covered.
+     */
+    @Test
+    void shouldEvictReservationsBeforeTheHorizon() {
+        LocalDate today = LocalDate.now();
+        LocalDate yesterday = today.minusDays(1);
+        index.add(RESTAURANT_ID, 2L, yesterday.atTime(12, 0), yesterday.atTime(14, 0));
+        index.add(RESTAURANT_ID, 2L, yesterday.atTime(23, 0), today.atTime(1, 0));
+        long yesterdayVersion = index.dateVersion(RESTAURANT_ID, yesterday);
+
+        index.evictPast();
+
+        assertThat(index.isOccupied(RESTAURANT_ID, 2L, yesterday.atTime(12, 0), yesterday.atTime(14, 0))).isFalse();
+        assertThat(index.isOccupied(RESTAURANT_ID, 2L, today.atTime(0, 0), today.atTime(2, 0))).isTrue();
+        assertThat(index.dateVersion(RESTAURANT_ID, yesterday)).isGreaterThan(yesterdayVersion);
+        assertThat(index.covers(today.atStartOfDay())).isTrue();
+        assertThat(index.covers(yesterday.atTime(23, 0))).isFalse();
+    }
+    /**
+     * Verifies that a reload merges the stored reservations with a reservation the database does not
+     * return yet (journaled, or committed after the query) and with holds.
+     */
+    @Test
+    void shouldKeepInMemoryReservationsAcrossReload() {
+        LocalDate tomorrow = LocalDate.now().plusDays(1);
+        index.add(RESTAURANT_ID, 2L, tomorrow.atTime(18, 0), tomorrow.atTime(20, 0));
+        index.addHold(RESTAURANT_ID, 3L, tomorrow.atTime(18, 0), tomorrow.atTime(20, 0));
+
+        index.reload();
+
+        assertThat(index.isOccupied(RESTAURANT_ID, 2L, tomorrow.atTime(19, 0), tomorrow.atTime(21, 0))).isTrue();
+        assertThat(index.isOccupied(RESTAURANT_ID, 3L, tomorrow.atTime(19, 0), tomorrow.atTime(21, 0))).isTrue();
+        assertThat(index.isOccupied(RESTAURANT_ID, 1L, LocalDateTime.of(2026, 3, 1, 18, 0), LocalDateTime.of(2026, 3, 1, 20, 0))).isTrue();
+        verify(reservationRepository, times(2)).findSlotsStartingAfter(any());
+    }
+    /**
+     * Test helper for building a reservation slot for the given table id and interval.
+     */
+    private ReservationSlot reservation(Long tableId, LocalDateTime start, LocalDateTime end) {
+        return new ReservationSlot(RESTAURANT_ID, tableId, start, end);
+    }
+}
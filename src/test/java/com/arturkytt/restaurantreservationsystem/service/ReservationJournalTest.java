@@ -0,0 +1,100 @@
+package com.arturkytt.restaurantreservationsystem.service;
+
+import com.arturkytt.restaurantreservationsystem.config.JournalProperties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for ReservationJournal.
+ *
+ * These tests verify that:
+ * - appended reservations survive reopening the journal until they were flushed, and are put into
+ *   the index when it is reopened
+ * - ids are taken from blocks of reservation_seq
+ * - flushed records are not replayed again
+ * - records rejected by the database are moved to reservation_journal_rejected before they count as flushed
+ */
+class ReservationJournalTest {
+
+    @TempDir
+    Path dir;
+
+    private final ReservationMetrics metrics = mock(ReservationMetrics.class);
+    private final ReservationIndex reservationIndex = mock(ReservationIndex.class);
+
+    /**
+     * Appends two reservations, reopens the journal without flushing, then flushes and reopens again.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldReplayUntilFlushed() throws Exception {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.queryForObject("select nextval('reservation_seq')", Long.class)).thenReturn(150L);
+        JournalProperties properties = new JournalProperties(true, dir.resolve("test.journal").toString(),
+                DataSize.ofKilobytes(8), Duration.ofMillis(50), 100);
+        LocalDateTime start = LocalDateTime.of(2026, 3, 1, 18, 0);
+
+        ReservationJournal journal = new ReservationJournal(jdbcTemplate, metrics, reservationIndex, properties);
+        assertThat(journal.append(1L, 3L, start, start.plusHours(2), 4)).isEqualTo(101L);
+        assertThat(journal.append(1L, 5L, start, start.plusHours(2), 2)).isEqualTo(102L);
+
+        ReservationJournal reopened = new ReservationJournal(jdbcTemplate, metrics, reservationIndex, properties);
+        verify(reservationIndex).add(1L, 3L, start, start.plusHours(2));
+        verify(reservationIndex).add(1L, 5L, start, start.plusHours(2));
+        assertThat(reopened.pending()).containsExactly(
+                new ReservationJournal.Entry(1, 101, 1, 3, start, start.plusHours(2), 4),
+                new ReservationJournal.Entry(2, 102, 1, 5, start, start.plusHours(2), 2));
+
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn(2);
+        assertThat(reopened.flush()).isEqualTo(2);
+        assertThat(reopened.flush()).isZero();
+
+        assertThat(new ReservationJournal(jdbcTemplate, metrics, reservationIndex, properties).pending()).isEmpty();
+    }
+
+    /**
+     * The batch insert fails on an overlapping record; the records are retried one by one and only
+     * the rejected one ends up in the dead-letter table.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldMoveRejectedRecordsToDeadLetterTable() throws Exception {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.queryForObject("select nextval('reservation_seq')", Long.class)).thenReturn(150L);
+        JournalProperties properties = new JournalProperties(true, dir.resolve("test.journal").toString(),
+                DataSize.ofKilobytes(8), Duration.ofMillis(50), 100);
+        LocalDateTime start = LocalDateTime.of(2026, 3, 1, 18, 0);
+
+        ReservationJournal journal = new ReservationJournal(jdbcTemplate, metrics, reservationIndex, properties);
+        journal.append(1L, 3L, start, start.plusHours(2), 4);
+        journal.append(1L, 3L, start.plusHours(1), start.plusHours(3), 2);
+
+        DataIntegrityViolationException overlap = new DataIntegrityViolationException("reservation_no_overlap");
+        when(jdbcTemplate.execute(any(ConnectionCallback.class)))
+                .thenThrow(overlap)
+                .thenReturn(1)
+                .thenThrow(overlap);
+        assertThat(journal.flush()).isEqualTo(2);
+
+        verify(jdbcTemplate).update(startsWith("insert into reservation_journal_rejected"),
+                eq(102L), eq(1L), eq(3L), any(), any(), eq(2), eq("reservation_no_overlap"));
+        verify(metrics).recordJournalRejection();
+        assertThat(journal.pending()).isEmpty();
+    }
+}
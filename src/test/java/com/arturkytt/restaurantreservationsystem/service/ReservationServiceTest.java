@@ -1,19 +1,37 @@
 package com.arturkytt.restaurantreservationsystem.service;
 
+import com.arturkytt.restaurantreservationsystem.config.IdempotencyProperties;
 import com.arturkytt.restaurantreservationsystem.config.ReservationPolicy;
 import com.arturkytt.restaurantreservationsystem.domain.DiningTable;
 import com.arturkytt.restaurantreservationsystem.domain.Reservation;
+import com.arturkytt.restaurantreservationsystem.domain.Restaurant;
 import com.arturkytt.restaurantreservationsystem.domain.Zone;
+import com.arturkytt.restaurantreservationsystem.dto.BatchReservationResultDto;
+import com.arturkytt.restaurantreservationsystem.dto.BatchReservationResultDto.Status;
+import com.arturkytt.restaurantreservationsystem.dto.CreateHoldRequestDto;
 import com.arturkytt.restaurantreservationsystem.dto.CreateReservationRequestDto;
+import com.arturkytt.restaurantreservationsystem.dto.HoldDto;
 import com.arturkytt.restaurantreservationsystem.repository.DiningTableRepository;
+import com.arturkytt.restaurantreservationsystem.repository.IdempotencyKeyRepository;
 import com.arturkytt.restaurantreservationsystem.repository.ReservationRepository;
+import com.arturkytt.restaurantreservationsystem.repository.ReservationSlot;
+import com.arturkytt.restaurantreservationsystem.repository.RestaurantRepository;
+import com.arturkytt.restaurantreservationsystem.repository.TableRow;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.SQLException;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -25,22 +43,63 @@ import static org.mockito.Mockito.*;
  *
  * These tests verify that the service:
  * - creates a reservation when the table is available
+ * - only finds tables in the requested restaurant
  * - rejects requests where party size exceeds table capacity
  * - rejects requests when the table is already reserved during the requested time window
+ * - reports exclusion constraint violations from concurrent inserts as an already reserved table
+ * - records capacity rejections and conflicts in ReservationMetrics
+ * - rejects conflicts known to the in-memory index before opening a transaction
+ * - validates batches item by item, including conflicts inside the batch itself
+ * - answers retries with a known idempotency key without checking or inserting again
+ * - treats held tables as occupied and converts a hold into a reservation
  */
 class ReservationServiceTest {
 
+    private static final Long RESTAURANT_ID = 1L;
+
+    private RestaurantRepository restaurantRepository;
     private DiningTableRepository tableRepository;
     private ReservationRepository reservationRepository;
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+    private ApplicationEventPublisher eventPublisher;
+    private ReservationIndex reservationIndex;
+    private BookingLocks bookingLocks;
+    private HoldService holdService;
+    private SimpleMeterRegistry meterRegistry;
     private ReservationService reservationService;
     /**
-     * Initializes the service with mocked repositories before each test.
+     * Initializes the service with mocked repositories and a mocked transaction manager before each test.
      */
     @BeforeEach
     void setup() {
+        restaurantRepository = mock(RestaurantRepository.class);
+        when(restaurantRepository.existsById(RESTAURANT_ID)).thenReturn(true);
+        Restaurant restaurant = new Restaurant();
+        restaurant.setId(RESTAURANT_ID);
+        when(restaurantRepository.getReferenceById(RESTAURANT_ID)).thenReturn(restaurant);
         tableRepository = mock(DiningTableRepository.class);
         reservationRepository = mock(ReservationRepository.class);
-        reservationService = new ReservationService(tableRepository, reservationRepository);
+        idempotencyKeyRepository = mock(IdempotencyKeyRepository.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        reservationIndex = new ReservationIndex(reservationRepository);
+        bookingLocks = new BookingLocks();
+        meterRegistry = new SimpleMeterRegistry();
+        FloorPlanCache floorPlanCache = new FloorPlanCache(restaurantRepository, tableRepository);
+        holdService = new HoldService(floorPlanCache, reservationIndex, bookingLocks, eventPublisher);
+        reservationService = new ReservationService(
+                floorPlanCache,
+                restaurantRepository,
+                tableRepository,
+                reservationRepository,
+                reservationIndex,
+                bookingLocks,
+                new IdempotencyStore(idempotencyKeyRepository, new IdempotencyProperties(Duration.ofHours(1), 100)),
+                holdService,
+                Optional.empty(),
+                new TransactionTemplate(mock(PlatformTransactionManager.class)),
+                eventPublisher,
+                new ReservationMetrics(meterRegistry, reservationIndex)
+        );
     }
     /**
      * Verifies that a reservation is saved when the table exists, capacity is sufficient,
@@ -50,17 +109,17 @@ class ReservationServiceTest {
     void shouldCreateReservationWhenTableIsFree() {
         DiningTable table = table(1L, "T1", 4, Zone.MAIN_HALL, 1, 1);
 
-        when(tableRepository.findById(1L)).thenReturn(Optional.of(table));
-        when(reservationRepository.findOverlapping(any(), any())).thenReturn(List.of());
+        givenTable(table);
+        when(reservationRepository.existsOverlapping(eq(1L), any(), any())).thenReturn(false);
 
         CreateReservationRequestDto req = new CreateReservationRequestDto(
                 1L, LocalDate.of(2026, 3, 1), LocalTime.of(18, 0), 4
         );
 
-        reservationService.createReservation(req);
+        reservationService.createReservation(RESTAURANT_ID, req);
 
         ArgumentCaptor<Reservation> captor = ArgumentCaptor.forClass(Reservation.class);
-        verify(reservationRepository).save(captor.capture());
+        verify(reservationRepository).saveAndFlush(captor.capture());
 
         Reservation saved = captor.getValue();
         assertThat(saved.getTable().getId()).isEqualTo(1L);
@@ -69,6 +128,28 @@ class ReservationServiceTest {
         LocalDateTime expectedStart = LocalDateTime.of(2026, 3, 1, 18, 0);
         assertThat(saved.getStartTime()).isEqualTo(expectedStart);
         assertThat(saved.getEndTime()).isEqualTo(expectedStart.plus(ReservationPolicy.DEFAULT_DURATION));
+
+        assertThat(saved.getRestaurant().getId()).isEqualTo(RESTAURANT_ID);
+
+        verify(eventPublisher).publishEvent(any(ReservationCreatedEvent.class));
+    }
+    /**
+     * Verifies that a table is only found in its own restaurant.
+     */
+    @Test
+    void shouldRejectTableOfAnotherRestaurant() {
+        givenTable(table(1L, "T1", 4, Zone.MAIN_HALL, 1, 1));
+        when(restaurantRepository.existsById(2L)).thenReturn(true);
+
+        CreateReservationRequestDto req = new CreateReservationRequestDto(
+                1L, LocalDate.of(2026, 3, 1), LocalTime.of(18, 0), 2
+        );
+
+        assertThatThrownBy(() -> reservationService.createReservation(2L, req))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Table not found");
+
+        verify(reservationRepository, never()).saveAndFlush(any());
     }
     /**
      * Verifies that reservations are rejected when the requested party size exceeds table capacity.
@@ -77,16 +158,17 @@ class ReservationServiceTest {
     void shouldRejectWhenPartySizeExceedsCapacity() {
         DiningTable table = table(1L, "T1", 2, Zone.MAIN_HALL, 1, 1);
 
-        when(tableRepository.findById(1L)).thenReturn(Optional.of(table));
+        givenTable(table);
 
         CreateReservationRequestDto req = new CreateReservationRequestDto(
                 1L, LocalDate.of(2026, 3, 1), LocalTime.of(18, 0), 3
         );
 
-        assertThatThrownBy(() -> reservationService.createReservation(req))
+        assertThatThrownBy(() -> reservationService.createReservation(RESTAURANT_ID, req))
                 .isInstanceOf(IllegalArgumentException.class);
 
-        verify(reservationRepository, never()).save(any());
+        verify(reservationRepository, never()).saveAndFlush(any());
+        assertThat(meterRegistry.get("restaurant.reservation.capacity.rejections").counter().count()).isEqualTo(1);
     }
     /**
      * Verifies that reservations are rejected when the table is already reserved
@@ -96,23 +178,184 @@ class ReservationServiceTest {
     void shouldRejectWhenTableIsAlreadyReserved() {
         DiningTable table = table(1L, "T1", 4, Zone.MAIN_HALL, 1, 1);
 
-        Reservation existing = new Reservation();
-        existing.setTable(table);
-        existing.setStartTime(LocalDateTime.of(2026, 3, 1, 17, 0));
-        existing.setEndTime(LocalDateTime.of(2026, 3, 1, 19, 0));
-        existing.setPartySize(2);
+        givenTable(table);
+        when(reservationRepository.existsOverlapping(1L, LocalDateTime.of(2026, 3, 1, 18, 0), LocalDateTime.of(2026, 3, 1, 20, 0)))
+                .thenReturn(true);
+
+        CreateReservationRequestDto req = new CreateReservationRequestDto(
+                1L, LocalDate.of(2026, 3, 1), LocalTime.of(18, 0), 2
+        );
+
+        assertThatThrownBy(() -> reservationService.createReservation(RESTAURANT_ID, req))
+                .isInstanceOf(IllegalStateException.class);
+
+        verify(reservationRepository, never()).saveAndFlush(any());
+    }
+    /**
+     * Verifies that a concurrent insert rejected by the exclusion constraint is reported
+     * as an already reserved table.
+     */
+    @Test
+    void shouldMapExclusionConstraintViolationToAlreadyReserved() {
+        DiningTable table = table(1L, "T1", 4, Zone.MAIN_HALL, 1, 1);
+
+        givenTable(table);
+        when(reservationRepository.existsOverlapping(eq(1L), any(), any())).thenReturn(false);
+        when(reservationRepository.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException(
+                "could not execute statement",
+                new SQLException("conflicting key value violates exclusion constraint", "23P01")));
+
+        CreateReservationRequestDto req = new CreateReservationRequestDto(
+                1L, LocalDate.of(2026, 3, 1), LocalTime.of(18, 0), 2
+        );
+
+        assertThatThrownBy(() -> reservationService.createReservation(RESTAURANT_ID, req))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Table already reserved at that time");
+
+        verify(eventPublisher, never()).publishEvent(any());
+        assertThat(meterRegistry.get("restaurant.reservation.conflicts").tag("check", "constraint").counter().count())
+                .isEqualTo(1);
+    }
+    /**
+     * Verifies that a conflict already present in the in-memory index is rejected
+     * without querying or writing the database, and is counted as a fast rejection.
+     */
+    @Test
+    void shouldRejectKnownConflictBeforeOpeningTransaction() {
+        DiningTable table = table(1L, "T1", 4, Zone.MAIN_HALL, 1, 1);
+        givenTable(table);
+        reservationIndex.add(RESTAURANT_ID, 1L, LocalDateTime.of(2026, 3, 1, 17, 0), LocalDateTime.of(2026, 3, 1, 19, 0));
+
+        CreateReservationRequestDto req = new CreateReservationRequestDto(
+                1L, LocalDate.of(2026, 3, 1), LocalTime.of(18, 0), 2
+        );
+
+        assertThatThrownBy(() -> reservationService.createReservation(RESTAURANT_ID, req))
+                .isInstanceOf(IllegalStateException.class);
 
-        when(tableRepository.findById(1L)).thenReturn(Optional.of(table));
-        when(reservationRepository.findOverlapping(any(), any())).thenReturn(List.of(existing));
+        verify(reservationRepository, never()).existsOverlapping(any(), any(), any());
+        verify(reservationRepository, never()).saveAndFlush(any());
+        assertThat(bookingLocks.contention(RESTAURANT_ID))
+                .singleElement()
+                .satisfies(c -> assertThat(c.rejected()).isEqualTo(1));
+    }
+    /**
+     * Verifies that a retry with the same idempotency key returns the first reservation without
+     * another overlap check or insert, and that reusing the key for a different request is rejected.
+     */
+    @Test
+    void shouldAnswerRetryWithSameIdempotencyKey() {
+        givenTable(table(1L, "T1", 4, Zone.MAIN_HALL, 1, 1));
+        when(reservationRepository.existsOverlapping(eq(1L), any(), any())).thenReturn(false);
+        when(reservationRepository.saveAndFlush(any())).thenAnswer(invocation -> {
+            Reservation reservation = invocation.getArgument(0);
+            reservation.setId(42L);
+            return reservation;
+        });
+        when(idempotencyKeyRepository.insert(any(), any(), any(), any(), any(), anyInt(), any(), any())).thenReturn(1);
 
         CreateReservationRequestDto req = new CreateReservationRequestDto(
                 1L, LocalDate.of(2026, 3, 1), LocalTime.of(18, 0), 2
         );
 
-        assertThatThrownBy(() -> reservationService.createReservation(req))
+        assertThat(reservationService.createReservation(RESTAURANT_ID, req, "retry-1")).isEqualTo(42L);
+        assertThat(reservationService.createReservation(RESTAURANT_ID, req, "retry-1")).isEqualTo(42L);
+
+        verify(reservationRepository, times(1)).existsOverlapping(any(), any(), any());
+        verify(reservationRepository, times(1)).saveAndFlush(any());
+        verify(idempotencyKeyRepository, times(1)).insert(eq("retry-1"), eq(42L), eq(RESTAURANT_ID), eq(1L),
+                eq(LocalDateTime.of(2026, 3, 1, 18, 0)), eq(2), any(), any());
+        assertThat(meterRegistry.get("restaurant.reservation.idempotent.replays").counter().count()).isEqualTo(1);
+
+        CreateReservationRequestDto other = new CreateReservationRequestDto(
+                1L, LocalDate.of(2026, 3, 1), LocalTime.of(18, 0), 3
+        );
+        assertThatThrownBy(() -> reservationService.createReservation(RESTAURANT_ID, other, "retry-1"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+    /**
+     * Verifies that a held slot rejects regular bookings, batch items and second holds, and that
+     * confirming the hold stores the reservation and frees the hold.
+     */
+    @Test
+    void shouldConvertHoldIntoReservation() {
+        givenTable(table(1L, "T1", 4, Zone.MAIN_HALL, 1, 1));
+        when(reservationRepository.existsOverlapping(eq(1L), any(), any())).thenReturn(false);
+        LocalDateTime start = LocalDateTime.of(2026, 3, 1, 18, 0);
+        LocalDateTime end = start.plus(ReservationPolicy.DEFAULT_DURATION);
+
+        HoldDto hold = holdService.createHold(RESTAURANT_ID, new CreateHoldRequestDto(
+                1L, LocalDate.of(2026, 3, 1), LocalTime.of(18, 0), 3, 30));
+
+        assertThat(reservationIndex.isOccupied(RESTAURANT_ID, 1L, start, end)).isTrue();
+        assertThatThrownBy(() -> reservationService.createReservation(RESTAURANT_ID, new CreateReservationRequestDto(
+                1L, LocalDate.of(2026, 3, 1), LocalTime.of(19, 0), 2)))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> holdService.createHold(RESTAURANT_ID, new CreateHoldRequestDto(
+                1L, LocalDate.of(2026, 3, 1), LocalTime.of(17, 0), 2, null)))
                 .isInstanceOf(IllegalStateException.class);
+        assertThat(reservationService.createReservations(RESTAURANT_ID, List.of(new CreateReservationRequestDto(
+                1L, LocalDate.of(2026, 3, 1), LocalTime.of(19, 0), 2))))
+                .extracting(BatchReservationResultDto::status).containsExactly(Status.CONFLICT);
 
-        verify(reservationRepository, never()).save(any());
+        reservationService.confirmHold(RESTAURANT_ID, hold.id());
+
+        ArgumentCaptor<Reservation> captor = ArgumentCaptor.forClass(Reservation.class);
+        verify(reservationRepository).saveAndFlush(captor.capture());
+        assertThat(captor.getValue().getStartTime()).isEqualTo(start);
+        assertThat(captor.getValue().getPartySize()).isEqualTo(3);
+        // The event publisher is mocked, so only the hold occupied the slot in memory.
+        assertThat(reservationIndex.isOccupied(RESTAURANT_ID, 1L, start, end)).isFalse();
+        assertThatThrownBy(() -> reservationService.confirmHold(RESTAURANT_ID, hold.id()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+    /**
+     * Verifies that a batch is checked with one overlap query and that invalid items,
+     * conflicts with stored reservations and conflicts within the batch are reported per item.
+     * While the batch is inserted, its slots are taken in memory by placeholders, which are
+     * removed afterwards.
+     */
+    @Test
+    void shouldReportPerItemResultsForBatch() {
+        DiningTable t1 = table(1L, "T1", 4, Zone.MAIN_HALL, 1, 1);
+        DiningTable t2 = table(2L, "T2", 2, Zone.MAIN_HALL, 2, 1);
+        when(tableRepository.findTableRows(RESTAURANT_ID)).thenReturn(List.of(row(t1), row(t2)));
+        when(tableRepository.getReferenceById(1L)).thenReturn(t1);
+        when(tableRepository.getReferenceById(2L)).thenReturn(t2);
+
+        ReservationSlot stored = new ReservationSlot(RESTAURANT_ID, 2L,
+                LocalDateTime.of(2026, 3, 1, 12, 0), LocalDateTime.of(2026, 3, 1, 14, 0));
+        when(reservationRepository.findOverlappingForTables(eq(RESTAURANT_ID), any(), any(), any())).thenReturn(List.of(stored));
+        LocalDate date = LocalDate.of(2026, 3, 1);
+        List<Boolean> takenDuringInsert = new ArrayList<>();
+        when(reservationRepository.saveAllAndFlush(any())).thenAnswer(inv -> {
+            takenDuringInsert.add(reservationIndex.isOccupied(RESTAURANT_ID, 1L, date.atTime(18, 0), date.atTime(20, 0)));
+            return inv.getArgument(0);
+        });
+
+        List<BatchReservationResultDto> results = reservationService.createReservations(RESTAURANT_ID, List.of(
+                new CreateReservationRequestDto(1L, date, LocalTime.of(18, 0), 4),
+                new CreateReservationRequestDto(1L, date, LocalTime.of(19, 0), 2),
+                new CreateReservationRequestDto(2L, date, LocalTime.of(13, 0), 2),
+                new CreateReservationRequestDto(2L, date, LocalTime.of(18, 0), 3),
+                new CreateReservationRequestDto(2L, date, LocalTime.of(18, 0), 2)
+        ));
+
+        assertThat(results).extracting(BatchReservationResultDto::status).containsExactly(
+                Status.CREATED, Status.CONFLICT, Status.CONFLICT, Status.INVALID, Status.CREATED);
+        verify(reservationRepository, times(1)).findOverlappingForTables(any(), any(), any(), any());
+        verify(reservationRepository, never()).saveAndFlush(any());
+        assertThat(takenDuringInsert).containsExactly(true);
+        // The event publisher is mocked, so nothing but the placeholder occupied the slot in memory.
+        assertThat(reservationIndex.isOccupied(RESTAURANT_ID, 1L, date.atTime(18, 0), date.atTime(20, 0))).isFalse();
+    }
+    /**
+     * Test helper that makes the given table part of the floor plan and resolvable by reference.
+     */
+    private void givenTable(DiningTable table) {
+        when(tableRepository.findTableRows(RESTAURANT_ID)).thenReturn(List.of(row(table)));
+        when(tableRepository.getReferenceById(table.getId())).thenReturn(table);
     }
     /**
      * Test helper for building DiningTable instances with the required attributes.
@@ -128,4 +371,10 @@ class ReservationServiceTest {
         t.setFeatures(Set.of());
         return t;
     }
-}
\ No newline at end of file
+    /**
+     * Test helper returning a featureless table as the repository's table row.
+     */
+    private static TableRow row(DiningTable t) {
+        return new TableRow(t.getId(), t.getCode(), t.getCapacity(), t.getZone(), t.getX(), t.getY(), null);
+    }
+}
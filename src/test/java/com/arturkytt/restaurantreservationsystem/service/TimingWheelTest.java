@@ -0,0 +1,45 @@
+package com.arturkytt.restaurantreservationsystem.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for TimingWheel.
+ *
+ * These tests verify that the wheel:
+ * - runs a task at the first advance after its deadline, not before
+ * - keeps timeouts longer than one turn of the wheel until their own deadline
+ * - never runs cancelled tasks
+ */
+class TimingWheelTest {
+
+    private static final long SECOND = Duration.ofSeconds(1).toNanos();
+
+    /**
+     * Verifies expiry order with a wheel of 8 one-second ticks and timeouts within and beyond one turn.
+     */
+    @Test
+    void shouldRunTasksAtTheirDeadlineOnly() {
+        TimingWheel wheel = new TimingWheel(Duration.ofSeconds(1), 8, 0);
+        List<String> fired = new ArrayList<>();
+
+        wheel.schedule(0, Duration.ofSeconds(2), () -> fired.add("short"));
+        wheel.schedule(0, Duration.ofSeconds(10), () -> fired.add("long"));
+        TimingWheel.Timeout cancelled = wheel.schedule(0, Duration.ofSeconds(3), () -> fired.add("cancelled"));
+        cancelled.cancel();
+
+        assertThat(wheel.advance(SECOND)).isZero();
+        assertThat(wheel.advance(2 * SECOND)).isEqualTo(1);
+        assertThat(fired).containsExactly("short");
+
+        // Tick 10 shares its bucket with tick 2; the long timeout must survive that bucket's first visit.
+        assertThat(wheel.advance(9 * SECOND)).isZero();
+        assertThat(wheel.advance(10 * SECOND + 1)).isEqualTo(1);
+        assertThat(fired).containsExactly("short", "long");
+    }
+}